@@ -0,0 +1,90 @@
+package com.shopify.loadtest;
+
+import com.shopify.entity.Payment.PaymentStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Bulk rows on top of what DataLoader creates. Plain JDBC batches keep seeding out of the measured
+// code paths and fast enough for six-figure row counts
+public class DataSeeder {
+    
+    private static final int BATCH_SIZE = 1000;
+    // Large enough that checkouts never sell a product out during a run
+    private static final int STOCK_PER_PRODUCT = 1_000_000;
+    private static final int PAYMENT_HISTORY_DAYS = 90;
+    
+    private final JdbcTemplate jdbcTemplate;
+    // Fixed seed: identical data for every run, so releases are compared against the same tables
+    private final SplittableRandom random = new SplittableRandom(42);
+    
+    public DataSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    public void seedProducts(int count) {
+        List<Long> categoryIds = jdbcTemplate.queryForList("SELECT id FROM categories ORDER BY id", Long.class);
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            double price = BigDecimal.valueOf(50 + random.nextDouble() * 50_000).setScale(2, RoundingMode.HALF_UP).doubleValue();
+            batch.add(new Object[] {
+                "Load Test Product " + i,
+                price,
+                STOCK_PER_PRODUCT,
+                categoryIds.get(i % categoryIds.size())
+            });
+            if (batch.size() == BATCH_SIZE) {
+                insertProducts(batch);
+            }
+        }
+        insertProducts(batch);
+    }
+    
+    public void seedPayments(int count) {
+        List<Long> paymentModeIds = jdbcTemplate.queryForList("SELECT id FROM payment_modes ORDER BY id", Long.class);
+        PaymentStatus[] statuses = PaymentStatus.values();
+        LocalDateTime now = LocalDateTime.now();
+        long historySeconds = PAYMENT_HISTORY_DAYS * 24L * 3600;
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            batch.add(new Object[] {
+                Timestamp.valueOf(now.minusSeconds(random.nextLong(historySeconds))),
+                paymentModeIds.get(random.nextInt(paymentModeIds.size())),
+                "LT-" + i,
+                BigDecimal.valueOf(100 + random.nextInt(1_000_000), 2),
+                statuses[random.nextInt(statuses.length)].name(),
+                "load test seed"
+            });
+            if (batch.size() == BATCH_SIZE) {
+                insertPayments(batch);
+            }
+        }
+        insertPayments(batch);
+    }
+    
+    private void insertProducts(List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                "INSERT INTO products (id, name, price, total_items_in_stock, category_id) "
+                    + "VALUES (nextval('products_id_seq'), ?, ?, ?, ?)",
+                batch);
+            batch.clear();
+        }
+    }
+    
+    private void insertPayments(List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                "INSERT INTO payments (id, payment_date, payment_mode_id, transaction_id, amount, status, remarks) "
+                    + "VALUES (nextval('payments_id_seq'), ?, ?, ?, ?, ?, ?)",
+                batch);
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.shopify.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+// Throwaway database for one run. PostgreSQL by default so query plans match production;
+// H2 in PostgreSQL mode where the embedded server cannot start (e.g. when running as root)
+public class EmbeddedDatabase implements AutoCloseable {
+    
+    private final EmbeddedPostgres postgres;
+    private final Map<String, Object> properties = new HashMap<>();
+    
+    private EmbeddedDatabase(EmbeddedPostgres postgres) {
+        this.postgres = postgres;
+    }
+    
+    public static EmbeddedDatabase start(String type) throws IOException {
+        switch (type) {
+            case "postgres" -> {
+                EmbeddedDatabase database = new EmbeddedDatabase(EmbeddedPostgres.builder().start());
+                // Same driver options as application.properties
+                database.properties.put("spring.datasource.url",
+                    database.postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true");
+                database.properties.put("spring.datasource.username", "postgres");
+                database.properties.put("spring.datasource.password", "");
+                return database;
+            }
+            case "h2" -> {
+                EmbeddedDatabase database = new EmbeddedDatabase(null);
+                database.properties.put("spring.datasource.url",
+                    "jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+                database.properties.put("spring.datasource.username", "sa");
+                database.properties.put("spring.datasource.password", "");
+                database.properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+                database.properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+                return database;
+            }
+            default -> throw new IllegalArgumentException("Unknown loadtest.db: " + type + " (expected postgres or h2)");
+        }
+    }
+    
+    public Map<String, Object> getProperties() {
+        return properties;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+}
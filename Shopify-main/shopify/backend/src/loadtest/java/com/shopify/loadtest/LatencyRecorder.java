@@ -0,0 +1,93 @@
+package com.shopify.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-endpoint latency in microseconds. Recorder gives wait-free recording from the worker threads
+// and a clean cut between the warmup and measured intervals
+public class LatencyRecorder {
+    
+    private static final int SIGNIFICANT_DIGITS = 3;
+    // .hgrm files are written in milliseconds, the unit HdrHistogram's plotter expects
+    private static final double MICROS_PER_MILLI = 1000.0;
+    
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile boolean measuring = true;
+    
+    public void record(String endpoint, long elapsedNanos, boolean success) {
+        if (!measuring) {
+            return;
+        }
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        stats.recorder.recordValue(Math.max(1, elapsedNanos / 1000));
+        if (!success) {
+            stats.errors.increment();
+        }
+    }
+    
+    // Drops everything recorded so far (the warmup)
+    public void reset() {
+        endpoints.values().forEach(stats -> {
+            stats.recorder.reset();
+            stats.errors.reset();
+        });
+    }
+    
+    public void stop() {
+        measuring = false;
+    }
+    
+    public void report(Duration measured, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        double seconds = measured.toMillis() / 1000.0;
+        
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("%-38s %10s %10s %9s %9s %9s %9s %8s%n",
+            "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors"));
+        long totalRequests = 0;
+        for (Map.Entry<String, Endpoint> entry : new TreeMap<>(endpoints).entrySet()) {
+            Histogram histogram = entry.getValue().recorder.getIntervalHistogram();
+            long errors = entry.getValue().errors.sum();
+            totalRequests += histogram.getTotalCount();
+            summary.append(String.format("%-38s %10d %10.1f %9.2f %9.2f %9.2f %9.2f %8d%n",
+                entry.getKey(),
+                histogram.getTotalCount(),
+                histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                histogram.getMaxValue() / MICROS_PER_MILLI,
+                errors));
+            
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(fileName(entry.getKey()))))) {
+                histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+        summary.append(String.format("%-38s %10d %10.1f%n", "total", totalRequests, totalRequests / seconds));
+        
+        System.out.println();
+        System.out.print(summary);
+        Files.writeString(directory.resolve("summary.txt"), summary);
+        System.out.println("Histograms written to " + directory.toAbsolutePath());
+    }
+    
+    // "PATCH /api/products/{id}/reduce-stock" -> "patch-api-products-id-reduce-stock.hgrm"
+    private static String fileName(String endpoint) {
+        return endpoint.toLowerCase().replaceAll("[^a-z0-9]+", "-").replaceAll("^-|-$", "") + ".hgrm";
+    }
+    
+    private static class Endpoint {
+        private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+        private final LongAdder errors = new LongAdder();
+    }
+}
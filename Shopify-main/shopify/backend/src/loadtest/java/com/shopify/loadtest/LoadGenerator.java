@@ -0,0 +1,162 @@
+package com.shopify.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Closed-loop workers: each thread runs one scenario after another with no think time, so the
+// offered load is bounded by the thread count and latencies are those seen by a saturating client
+public class LoadGenerator {
+    
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    
+    private final String baseUrl;
+    private final LoadTestConfig config;
+    private final LatencyRecorder recorder;
+    private final List<Long> productIds;
+    private final List<Long> paymentModeIds;
+    private final Scenario[] schedule;
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    private final AtomicLong transactionSequence = new AtomicLong();
+    private volatile boolean running = true;
+    
+    public LoadGenerator(String baseUrl, LoadTestConfig config, LatencyRecorder recorder,
+                         List<Long> productIds, List<Long> paymentModeIds) {
+        this.baseUrl = baseUrl;
+        this.config = config;
+        this.recorder = recorder;
+        this.productIds = productIds;
+        this.paymentModeIds = paymentModeIds;
+        this.schedule = buildSchedule(config.mix());
+    }
+    
+    public void run() throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(config.threads());
+        for (int i = 0; i < config.threads(); i++) {
+            workers.submit(this::work);
+        }
+        
+        System.out.printf("Warming up for %ds with %d threads%n", config.warmup().toSeconds(), config.threads());
+        Thread.sleep(config.warmup().toMillis());
+        recorder.reset();
+        
+        System.out.printf("Measuring for %ds%n", config.duration().toSeconds());
+        Thread.sleep(config.duration().toMillis());
+        recorder.stop();
+        
+        running = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(REQUEST_TIMEOUT.toSeconds() + 5, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+    
+    private void work() {
+        String listEtag = null;
+        while (running) {
+            try {
+                switch (schedule[ThreadLocalRandom.current().nextInt(schedule.length)]) {
+                    case BROWSE -> listEtag = browse(listEtag);
+                    case CHECKOUT -> checkout();
+                    case ADMIN -> admin();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    private String browse(String listEtag) throws InterruptedException {
+        HttpRequest.Builder list = get("/api/products");
+        if (listEtag != null) {
+            list.header("If-None-Match", listEtag);
+        }
+        HttpResponse<String> response = send("GET /api/products", list.build());
+        String etag = response == null ? null : response.headers().firstValue("ETag").orElse(listEtag);
+        
+        send("GET /api/products/{id}", get("/api/products/" + randomProductId()).build());
+        return etag;
+    }
+    
+    private void checkout() throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long paymentModeId = paymentModeIds.get(random.nextInt(paymentModeIds.size()));
+        
+        if (random.nextBoolean()) {
+            long productId = randomProductId();
+            send("PATCH /api/products/{id}/reduce-stock",
+                json("/api/products/" + productId + "/reduce-stock", "PATCH", "{\"quantity\":1}"));
+            send("POST /api/payments", json("/api/payments", "POST",
+                "{\"paymentModeId\":" + paymentModeId
+                    + ",\"transactionId\":\"" + nextTransactionId()
+                    + "\",\"amount\":499.00,\"remarks\":\"load test\"}"));
+        } else {
+            send("POST /api/checkout", json("/api/checkout", "POST",
+                "{\"paymentModeId\":" + paymentModeId
+                    + ",\"transactionId\":\"" + nextTransactionId()
+                    + "\",\"remarks\":\"load test\",\"items\":["
+                    + "{\"productId\":" + randomProductId() + ",\"quantity\":1},"
+                    + "{\"productId\":" + randomProductId() + ",\"quantity\":2}]}"));
+        }
+    }
+    
+    private void admin() throws InterruptedException {
+        send("GET /api/dashboard", get("/api/dashboard").build());
+        send("GET /api/payments", get("/api/payments").build());
+    }
+    
+    private HttpResponse<String> send(String endpoint, HttpRequest request) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            int status = response.statusCode();
+            recorder.record(endpoint, System.nanoTime() - start, (status >= 200 && status < 300) || status == 304);
+            return response;
+        } catch (IOException e) {
+            recorder.record(endpoint, System.nanoTime() - start, false);
+            return null;
+        }
+    }
+    
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT).GET();
+    }
+    
+    private HttpRequest json(String path, String method, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(REQUEST_TIMEOUT)
+            .header("Content-Type", "application/json")
+            .method(method, HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+    
+    private long randomProductId() {
+        return productIds.get(ThreadLocalRandom.current().nextInt(productIds.size()));
+    }
+    
+    private String nextTransactionId() {
+        return "LT-RUN-" + System.currentTimeMillis() + "-" + transactionSequence.incrementAndGet();
+    }
+    
+    // One slot per unit of weight, so picking a uniform random slot honours the mix
+    private static Scenario[] buildSchedule(Map<Scenario, Integer> mix) {
+        return mix.entrySet().stream()
+            .flatMap(entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream())
+            .toArray(Scenario[]::new);
+    }
+}
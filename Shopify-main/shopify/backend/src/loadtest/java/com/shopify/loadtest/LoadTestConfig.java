@@ -0,0 +1,50 @@
+package com.shopify.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Every knob is a -Dloadtest.* system property so two releases can be compared under the same command line
+public record LoadTestConfig(
+        String database,
+        int products,
+        int payments,
+        int threads,
+        Duration warmup,
+        Duration duration,
+        Map<Scenario, Integer> mix,
+        Path reportDirectory) {
+    
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+            System.getProperty("loadtest.db", "postgres"),
+            Integer.getInteger("loadtest.products", 5000),
+            Integer.getInteger("loadtest.payments", 20000),
+            Integer.getInteger("loadtest.threads", 16),
+            Duration.parse("PT" + System.getProperty("loadtest.warmup", "15s")),
+            Duration.parse("PT" + System.getProperty("loadtest.duration", "60s")),
+            parseMix(System.getProperty("loadtest.mix", "browse=70,checkout=20,admin=10")),
+            Path.of(System.getProperty("loadtest.report-dir", "target/loadtest")));
+    }
+    
+    // "browse=70,checkout=20,admin=10" -> relative weights; omitted scenarios are not run
+    private static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] entry = part.trim().split("=");
+            if (entry.length != 2) {
+                throw new IllegalArgumentException("Invalid loadtest.mix entry: " + part);
+            }
+            int weight = Integer.parseInt(entry[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in loadtest.mix: " + part);
+            }
+            mix.put(Scenario.valueOf(entry[0].trim().toUpperCase()), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("loadtest.mix must give at least one scenario a positive weight");
+        }
+        return mix;
+    }
+}
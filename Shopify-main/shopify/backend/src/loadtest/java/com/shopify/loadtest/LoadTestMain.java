@@ -0,0 +1,63 @@
+package com.shopify.loadtest;
+
+import com.shopify.ShopifyApplication;
+import com.shopify.service.DashboardStatsStore;
+import com.shopify.service.PaymentAnalyticsService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Starts the real application on a random port against an embedded database, seeds it and drives
+// HTTP traffic at it. Run through the loadtest profile: mvn -Ploadtest verify
+public class LoadTestMain {
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        System.out.println("Load test configuration: " + config);
+        
+        try (EmbeddedDatabase database = EmbeddedDatabase.start(config.database());
+             ConfigurableApplicationContext context = startApplication(database)) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            
+            long seedStart = System.nanoTime();
+            DataSeeder seeder = new DataSeeder(jdbcTemplate);
+            seeder.seedProducts(config.products());
+            seeder.seedPayments(config.payments());
+            // Rows were inserted behind the application's back; bring the in-memory views up to date
+            context.getBean(DashboardStatsStore.class).reconcile();
+            context.getBean(PaymentAnalyticsService.class).rebuild();
+            System.out.printf("Seeded %d products and %d payments in %dms%n",
+                config.products(), config.payments(), (System.nanoTime() - seedStart) / 1_000_000);
+            
+            List<Long> productIds = jdbcTemplate.queryForList("SELECT id FROM products ORDER BY id", Long.class);
+            List<Long> paymentModeIds = jdbcTemplate.queryForList(
+                "SELECT id FROM payment_modes WHERE is_active = true ORDER BY id", Long.class);
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            
+            LatencyRecorder recorder = new LatencyRecorder();
+            new LoadGenerator("http://localhost:" + port, config, recorder, productIds, paymentModeIds).run();
+            recorder.report(config.duration(), config.reportDirectory());
+        }
+    }
+    
+    private static ConfigurableApplicationContext startApplication(EmbeddedDatabase database) {
+        Map<String, Object> properties = new HashMap<>(database.getProperties());
+        properties.put("server.port", 0);
+        properties.put("spring.main.banner-mode", "off");
+        // SQL logging would dominate the latencies being measured
+        properties.put("spring.jpa.show-sql", false);
+        properties.put("logging.level.org.hibernate.SQL", "WARN");
+        properties.put("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "WARN");
+        properties.put("logging.level.com.shopify", "INFO");
+        // Passed as command line arguments so they take precedence over application.properties
+        String[] args = properties.entrySet().stream()
+            .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+            .toArray(String[]::new);
+        return new SpringApplicationBuilder(ShopifyApplication.class).run(args);
+    }
+}
@@ -0,0 +1,10 @@
+package com.shopify.loadtest;
+
+public enum Scenario {
+    // Shop front: product list (revalidated with If-None-Match) followed by a product page
+    BROWSE,
+    // The checkout page's old two-step flow (reduce-stock, then POST /api/payments) alternating with /api/checkout
+    CHECKOUT,
+    // Admin screens polling the dashboard and payment list
+    ADMIN
+}
@@ -0,0 +1,207 @@
+package com.shopify.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Time from JVM launch to the first successful GET /api/products, for the default configuration and the
+// fast-start variants. Every run is a fresh JVM on the extracted jar in target/cds (mvn -Pfaststart package)
+// against one database, migrated by an unmeasured priming start so no run pays for it. Run through the
+// loadtest profile: mvn -Ploadtest verify -Dloadtest.main=com.shopify.loadtest.StartupTimeMain
+public class StartupTimeMain {
+    
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(2);
+    private static final long POLL_INTERVAL_MS = 10;
+    private static final String ARCHIVE = "application.jsa";
+    private static final String PROD = "--spring.profiles.active=prod";
+    
+    private enum Variant {
+        DEFAULT(List.of(), List.of()),
+        PROD(List.of(), List.of(StartupTimeMain.PROD)),
+        PROD_CDS(List.of("-XX:SharedArchiveFile=" + ARCHIVE), List.of(StartupTimeMain.PROD)),
+        PROD_AOT_CDS(List.of("-XX:SharedArchiveFile=" + ARCHIVE, "-Dspring.aot.enabled=true"), List.of(StartupTimeMain.PROD));
+        
+        private final List<String> jvmArguments;
+        private final List<String> applicationArguments;
+        
+        Variant(List<String> jvmArguments, List<String> applicationArguments) {
+            this.jvmArguments = jvmArguments;
+            this.applicationArguments = applicationArguments;
+        }
+        
+        static Variant parse(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+        
+        String label() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+    }
+    
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(1))
+        .build();
+    private final Path cdsDirectory;
+    private final Path logDirectory;
+    private final List<String> classpath = new ArrayList<>();
+    private final Map<String, Object> properties = new LinkedHashMap<>();
+    
+    private StartupTimeMain(Path cdsDirectory, Path logDirectory) {
+        this.cdsDirectory = cdsDirectory;
+        this.logDirectory = logDirectory;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.getInteger("startup.runs", 5);
+        List<Variant> variants = Arrays.stream(
+            System.getProperty("startup.variants", "default,prod,prod-cds,prod-aot-cds").split(","))
+            .map(Variant::parse)
+            .toList();
+        Path cdsDirectory = Path.of(System.getProperty("startup.cds-dir", "target/cds")).toAbsolutePath();
+        Path reportDirectory = Path.of(System.getProperty("startup.report-dir", "target/startup")).toAbsolutePath();
+        if (!Files.exists(cdsDirectory.resolve(ARCHIVE))) {
+            throw new IllegalStateException("No " + ARCHIVE + " in " + cdsDirectory + "; run mvn -Pfaststart package first");
+        }
+        Files.createDirectories(reportDirectory.resolve("logs"));
+        
+        StartupTimeMain main = new StartupTimeMain(cdsDirectory, reportDirectory.resolve("logs"));
+        try (Stream<Path> jars = Files.list(cdsDirectory)) {
+            jars.filter(path -> path.toString().endsWith(".jar")).forEach(path -> main.classpath.add(path.toString()));
+        }
+        try (EmbeddedDatabase database = main.useDatabase(reportDirectory)) {
+            main.measure(variants, runs, reportDirectory);
+        }
+    }
+    
+    // -Dstartup.jdbc-url points at an existing database (it is migrated by the priming start). Otherwise an
+    // embedded PostgreSQL, or with -Dstartup.db=h2 an H2 file database shared by the runs
+    private EmbeddedDatabase useDatabase(Path reportDirectory) throws IOException {
+        String jdbcUrl = System.getProperty("startup.jdbc-url");
+        if (jdbcUrl != null) {
+            properties.put("spring.datasource.url", jdbcUrl);
+            properties.put("spring.datasource.username", System.getProperty("startup.username", "postgres"));
+            properties.put("spring.datasource.password", System.getProperty("startup.password", ""));
+            return null;
+        }
+        if ("h2".equals(System.getProperty("startup.db", "postgres"))) {
+            Path file = reportDirectory.resolve("h2").resolve("shop");
+            Files.deleteIfExists(Path.of(file + ".mv.db"));
+            properties.put("spring.datasource.url",
+                "jdbc:h2:file:" + file + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH");
+            properties.put("spring.datasource.username", "sa");
+            properties.put("spring.datasource.password", "");
+            properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+            properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+            // The driver is not part of the application; appended so the archived class path stays a prefix
+            classpath.add(Path.of(org.h2.Driver.class.getProtectionDomain().getCodeSource().getLocation().getPath()).toString());
+            return null;
+        }
+        EmbeddedDatabase database = EmbeddedDatabase.start("postgres");
+        properties.putAll(database.getProperties());
+        return database;
+    }
+    
+    private void measure(List<Variant> variants, int runs, Path reportDirectory) throws Exception {
+        System.out.println("Priming start (applies the migrations)");
+        start(Variant.PROD, "priming");
+        
+        // Variants take turns within each round, so drift on the host spreads over all of them
+        Map<Variant, List<Long>> millis = new EnumMap<>(Variant.class);
+        for (int run = 1; run <= runs; run++) {
+            for (Variant variant : variants) {
+                long elapsed = start(variant, variant.label() + "-" + run).toMillis();
+                millis.computeIfAbsent(variant, key -> new ArrayList<>()).add(elapsed);
+                System.out.printf("%-14s run %d: %dms%n", variant.label(), run, elapsed);
+            }
+        }
+        
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("Time to first request, %d runs, %s %s%n",
+            runs, System.getProperty("java.vm.name"), System.getProperty("java.version")));
+        summary.append(String.format("%-14s %9s %9s %9s%n", "variant", "min ms", "median ms", "max ms"));
+        for (Variant variant : variants) {
+            List<Long> sorted = millis.get(variant).stream().sorted().toList();
+            summary.append(String.format("%-14s %9d %9d %9d%n",
+                variant.label(), sorted.get(0), sorted.get(sorted.size() / 2), sorted.get(sorted.size() - 1)));
+        }
+        System.out.println();
+        System.out.print(summary);
+        Files.writeString(reportDirectory.resolve("summary.txt"), summary);
+    }
+    
+    private Duration start(Variant variant, String name) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(variant.jvmArguments);
+        command.add("-cp");
+        command.add(String.join(File.pathSeparator, classpath));
+        command.add("com.shopify.ShopifyApplication");
+        command.add("--server.port=" + port);
+        properties.forEach((key, value) -> command.add("--" + key + "=" + value));
+        // The same logging for every variant; the default profile's SQL logging would otherwise be measured
+        command.add("--spring.jpa.show-sql=false");
+        command.add("--logging.level.org.hibernate.SQL=WARN");
+        command.add("--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+        command.add("--logging.level.com.shopify=INFO");
+        command.addAll(variant.applicationArguments);
+        
+        Path log = logDirectory.resolve(name + ".log");
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products"))
+            .timeout(Duration.ofSeconds(30))
+            .build();
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+            .directory(cdsDirectory.toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(log.toFile())
+            .start();
+        try {
+            long deadline = started + START_TIMEOUT.toNanos();
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(name + " exited with " + process.exitValue() + "; see " + log);
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return Duration.ofNanos(System.nanoTime() - started);
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException(name + " did not answer within " + START_TIMEOUT + "; see " + log);
+                }
+                Thread.sleep(POLL_INTERVAL_MS);
+            }
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+    
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
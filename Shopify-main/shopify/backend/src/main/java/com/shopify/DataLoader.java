@@ -7,11 +7,18 @@ import com.shopify.repository.CategoryRepository;
 import com.shopify.repository.ProductRepository;
 import com.shopify.repository.PaymentModeRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
+// Sample data for development; the prod profile seeds through db/migration/common/V2__seed_data.sql instead
 @Component
+@ConditionalOnProperty(name = "shopify.seed-data.enabled", havingValue = "true", matchIfMissing = true)
 @RequiredArgsConstructor
+@Slf4j
 public class DataLoader implements CommandLineRunner {
     
     private final CategoryRepository categoryRepository;
@@ -22,34 +29,45 @@ public class DataLoader implements CommandLineRunner {
     public void run(String... args) throws Exception {
         // Create Categories only if none exist
         if (categoryRepository.count() == 0) {
-            Category food = categoryRepository.save(new Category("Food"));
-            Category mobiles = categoryRepository.save(new Category("Mobiles"));
-            Category electronics = categoryRepository.save(new Category("Electronics"));
-            Category stationery = categoryRepository.save(new Category("Stationery"));
+            // saveAll so the rows go out as batched inserts rather than one round-trip each
+            List<Category> categories = categoryRepository.saveAll(List.of(
+                new Category("Food"),
+                new Category("Mobiles"),
+                new Category("Electronics"),
+                new Category("Stationery")));
+            Category food = categories.get(0);
+            Category mobiles = categories.get(1);
+            Category electronics = categories.get(2);
+            Category stationery = categories.get(3);
             
             // Create Sample Products (Prices in INR)
-            productRepository.save(new Product("Organic Apple", 299.00, 150, "https://images.unsplash.com/photo-1568702846914-96b305d2aaeb?w=400", food));
-            productRepository.save(new Product("iPhone 15 Pro", 134900.00, 50, "https://images.unsplash.com/photo-1678652197950-32d529427814?w=400", mobiles));
-            productRepository.save(new Product("Sony Headphones", 24999.00, 75, "https://images.unsplash.com/photo-1505740420928-5e560c06d30e?w=400", electronics));
-            productRepository.save(new Product("Notebook Set", 899.00, 200, "https://images.unsplash.com/photo-1544816155-12df9643f363?w=400", stationery));
+            List<Product> products = productRepository.saveAll(List.of(
+                new Product("Organic Apple", 299.00, 150, "https://images.unsplash.com/photo-1568702846914-96b305d2aaeb?w=400", food),
+                new Product("iPhone 15 Pro", 134900.00, 50, "https://images.unsplash.com/photo-1678652197950-32d529427814?w=400", mobiles),
+                new Product("Sony Headphones", 24999.00, 75, "https://images.unsplash.com/photo-1505740420928-5e560c06d30e?w=400", electronics),
+                new Product("Notebook Set", 899.00, 200, "https://images.unsplash.com/photo-1544816155-12df9643f363?w=400", stationery)));
             
-            System.out.println("Categories and products initialized!");
+            log.atInfo().setMessage("Sample catalog created")
+                .addKeyValue("categories", categories.size())
+                .addKeyValue("products", products.size())
+                .log();
         } else {
-            System.out.println("Categories already exist. Skipping category initialization.");
+            log.debug("Categories exist, sample catalog skipped");
         }
         
         // Create Payment Modes only if none exist
         if (paymentModeRepository.count() == 0) {
-            paymentModeRepository.save(new PaymentMode("Cash On Delivery"));
-            paymentModeRepository.save(new PaymentMode("UPI"));
-            paymentModeRepository.save(new PaymentMode("Debit/Credit Card"));
-            paymentModeRepository.save(new PaymentMode("Net Banking"));
-            paymentModeRepository.save(new PaymentMode("Wallet"));
-            System.out.println("Payment modes initialized!");
+            List<PaymentMode> paymentModes = paymentModeRepository.saveAll(List.of(
+                new PaymentMode("Cash On Delivery"),
+                new PaymentMode("UPI"),
+                new PaymentMode("Debit/Credit Card"),
+                new PaymentMode("Net Banking"),
+                new PaymentMode("Wallet")));
+            log.atInfo().setMessage("Sample payment modes created")
+                .addKeyValue("paymentModes", paymentModes.size())
+                .log();
         } else {
-            System.out.println("Payment modes already exist. Skipping payment mode initialization.");
+            log.debug("Payment modes exist, sample payment modes skipped");
         }
-        
-        System.out.println("Database initialization complete!");
     }
 }
@@ -0,0 +1,123 @@
+package com.shopify.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Fair admission gate in front of the connection pool. Each borrowed connection holds one permit until
+// it is closed, so with permits equal to the pool size callers queue here (FIFO, cheap to park even
+// for thousands of virtual threads) rather than inside Hikari, whose connection-timeout would fail them.
+public class AdmissionControlledDataSource extends DelegatingDataSource {
+    
+    private final Semaphore permits;
+    private final int maxPermits;
+    private final Duration maxWait;
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    
+    public AdmissionControlledDataSource(DataSource target, int permits, Duration maxWait) {
+        super(target);
+        this.permits = new Semaphore(permits, true);
+        this.maxPermits = permits;
+        this.maxWait = maxWait;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        admit();
+        return borrow(super::getConnection);
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        admit();
+        return borrow(() -> super.getConnection(username, password));
+    }
+    
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+    
+    public int getActivePermits() {
+        return maxPermits - permits.availablePermits();
+    }
+    
+    public int getMaxPermits() {
+        return maxPermits;
+    }
+    
+    public long getAdmittedCount() {
+        return admitted.sum();
+    }
+    
+    public long getTotalWaitNanos() {
+        return waitNanos.sum();
+    }
+    
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+    
+    private void admit() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                timeouts.increment();
+                throw new SQLTransientConnectionException(
+                    "Timed out after " + maxWait.toMillis() + "ms waiting for database admission ("
+                        + permits.getQueueLength() + " waiting)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for database admission", e);
+        } finally {
+            waitNanos.add(System.nanoTime() - start);
+        }
+        admitted.increment();
+    }
+    
+    // Borrows from the pool under an already acquired permit; the permit goes back when the connection is closed
+    private Connection borrow(ConnectionSupplier supplier) throws SQLException {
+        Connection connection;
+        try {
+            connection = supplier.get();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    } finally {
+                        permits.release();
+                    }
+                }
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            });
+    }
+    
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
@@ -0,0 +1,77 @@
+package com.shopify.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// On by default together with virtual threads (spring.threads.virtual.enabled), where request
+// concurrency is no longer capped by Tomcat's thread pool and the 10-connection pool becomes the queue
+@Configuration
+@ConditionalOnExpression("${shopify.db-admission.enabled:${spring.threads.virtual.enabled:false}}")
+public class DatabaseAdmissionConfig {
+    
+    // Static so the post-processor is registered without instantiating this configuration early
+    @Bean
+    public static BeanPostProcessor databaseAdmissionPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)) {
+                    return bean;
+                }
+                int permits = environment.getProperty("shopify.db-admission.permits", Integer.class,
+                    hikari.getMaximumPoolSize());
+                Duration maxWait = environment.getProperty("shopify.db-admission.max-wait", Duration.class,
+                    Duration.ofMinutes(2));
+                return new AdmissionControlledDataSource(hikari, permits, maxWait);
+            }
+        };
+    }
+    
+    // One gate per pool (primary and, when configured, replica), tagged with the Hikari pool name
+    @Bean
+    public MeterBinder databaseAdmissionMetrics(ObjectProvider<DataSource> dataSources) {
+        return registry -> dataSources.forEach(dataSource -> {
+            if (!(dataSource instanceof AdmissionControlledDataSource gate)) {
+                return;
+            }
+            String pool = gate.getTargetDataSource() instanceof HikariDataSource hikari && hikari.getPoolName() != null
+                ? hikari.getPoolName() : "default";
+            Gauge.builder("shopify.db.admission.waiting", gate, AdmissionControlledDataSource::getQueueLength)
+                .description("Threads queued for a database connection permit")
+                .tag("pool", pool)
+                .register(registry);
+            Gauge.builder("shopify.db.admission.active", gate, AdmissionControlledDataSource::getActivePermits)
+                .description("Connection permits currently held")
+                .tag("pool", pool)
+                .register(registry);
+            Gauge.builder("shopify.db.admission.max", gate, AdmissionControlledDataSource::getMaxPermits)
+                .description("Connection permits available in total")
+                .tag("pool", pool)
+                .register(registry);
+            FunctionTimer.builder("shopify.db.admission.wait", gate,
+                    AdmissionControlledDataSource::getAdmittedCount,
+                    AdmissionControlledDataSource::getTotalWaitNanos,
+                    TimeUnit.NANOSECONDS)
+                .description("Time spent waiting for a database connection permit")
+                .tag("pool", pool)
+                .register(registry);
+            FunctionCounter.builder("shopify.db.admission.timeouts", gate, AdmissionControlledDataSource::getTimeoutCount)
+                .description("Requests that gave up waiting for a database connection permit")
+                .tag("pool", pool)
+                .register(registry);
+        });
+    }
+}
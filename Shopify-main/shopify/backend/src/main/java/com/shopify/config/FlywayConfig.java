@@ -0,0 +1,30 @@
+package com.shopify.config;
+
+import org.flywaydb.core.api.Location;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+// The payments partitioning migration (db/migration/partitioning, PostgreSQL 14+) rewrites the whole payments
+// table, so it is not part of the regular migrations: it is only added to spring.flyway.locations when
+// shopify.payments.partitioning.enabled is set. Unsetting it later does not undo an applied partitioning.
+@Configuration
+public class FlywayConfig {
+    
+    private static final String PARTITIONING_LOCATION = "classpath:db/migration/partitioning";
+    
+    @Bean
+    public FlywayConfigurationCustomizer partitioningMigrationCustomizer(
+            @Value("${shopify.payments.partitioning.enabled:false}") boolean partitioningEnabled) {
+        return configuration -> {
+            if (partitioningEnabled) {
+                configuration.locations(Stream.concat(Arrays.stream(configuration.getLocations()),
+                    Stream.of(new Location(PARTITIONING_LOCATION))).toArray(Location[]::new));
+            }
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.shopify.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Counts SQL statements prepared by Hibernate on the current thread, so the number issued while
+// serving one request can be recorded (a list endpoint whose count grows with the result is an N+1).
+// Statements sent through JdbcTemplate (the batched stock decrement) bypass Hibernate and are not counted.
+public class QueryCountInspector implements StatementInspector {
+    
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+    
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+    
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+    
+    public static int count() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,35 @@
+package com.shopify.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+// Records shopify.http.queries: SQL statements issued per request, tagged by controller method
+@Component
+@RequiredArgsConstructor
+public class QueryCountInterceptor implements HandlerInterceptor {
+    
+    private final MeterRegistry meterRegistry;
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        QueryCountInspector.reset();
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            DistributionSummary.builder("shopify.http.queries")
+                .description("SQL statements executed while handling a request")
+                .tag("handler", MetricsConfig.handlerName(handlerMethod))
+                .register(meterRegistry)
+                .record(QueryCountInspector.count());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.shopify.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+
+// Two pools when shopify.datasource.replica.url is set: spring.datasource.* for the primary and
+// shopify.datasource.replica.* for the replica. The application-wide DataSource routes read-only
+// transactions to the replica while it is caught up and the client has not just written. Without the
+// property Spring Boot's single pool is used as before.
+@Configuration
+@ConditionalOnProperty("shopify.datasource.replica.url")
+public class ReadReplicaConfig {
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+    
+    // Username and password default to the primary's
+    @Bean
+    @ConfigurationProperties("shopify.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${shopify.datasource.replica.url}") String url,
+                                              @Value("${shopify.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${shopify.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .driverClassName(properties.determineDriverClassName())
+            .url(url)
+            .username(username)
+            .password(password)
+            .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        // An unreachable replica should fail the lag check quickly rather than hold up reads
+        dataSource.setConnectionTimeout(2000);
+        return dataSource;
+    }
+    
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${shopify.datasource.replica.max-lag:5s}") Duration maxLag) {
+        return new ReplicaLagMonitor(replica, meterRegistry, maxLag);
+    }
+    
+    // Connections are only taken from a pool at the first statement, after the transaction manager has
+    // marked the transaction read-only; transactions that never reach the database borrow nothing
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 MeterRegistry meterRegistry) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, replicaLagMonitor, meterRegistry);
+        routing.afterPropertiesSet();
+        
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy();
+        proxy.setTargetDataSource(routing);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        proxy.afterPropertiesSet();
+        return proxy;
+    }
+    
+    @Bean
+    public ReadYourWritesInterceptor readYourWritesInterceptor(
+            @Value("${shopify.datasource.replica.read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWritesInterceptor(window);
+    }
+}
@@ -0,0 +1,47 @@
+package com.shopify.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Read-only transactions go to the replica unless it is lagging or unreachable, or the current request
+// is pinned to the primary (ReadYourWrites); everything else goes to the primary
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    
+    enum Target { PRIMARY, REPLICA }
+    
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor replicaLagMonitor,
+                                      MeterRegistry meterRegistry) {
+        this.replicaLagMonitor = replicaLagMonitor;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.primaryConnections = Counter.builder("shopify.db.routed_connections")
+            .description("Connections taken from the primary or the replica pool")
+            .tag("target", "primary")
+            .register(meterRegistry);
+        this.replicaConnections = Counter.builder("shopify.db.routed_connections")
+            .description("Connections taken from the primary or the replica pool")
+            .tag("target", "replica")
+            .register(meterRegistry);
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !ReadYourWrites.isPinned()
+                && replicaLagMonitor.isReplicaUsable()) {
+            replicaConnections.increment();
+            return Target.REPLICA;
+        }
+        primaryConnections.increment();
+        return Target.PRIMARY;
+    }
+}
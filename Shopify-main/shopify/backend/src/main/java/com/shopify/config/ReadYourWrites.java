@@ -0,0 +1,22 @@
+package com.shopify.config;
+
+// Pins the current thread's reads to the primary, e.g. for the rest of a request after a write
+public final class ReadYourWrites {
+    
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+    
+    private ReadYourWrites() {
+    }
+    
+    public static void pinToPrimary() {
+        PINNED.set(Boolean.TRUE);
+    }
+    
+    public static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+    
+    public static void clear() {
+        PINNED.remove();
+    }
+}
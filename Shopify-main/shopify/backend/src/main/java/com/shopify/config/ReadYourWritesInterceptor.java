@@ -0,0 +1,58 @@
+package com.shopify.config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.util.WebUtils;
+
+import java.time.Duration;
+import java.util.Set;
+
+// Read-your-writes across requests: a write (e.g. a checkout) sets a short-lived cookie, and requests that
+// carry it read from the primary, so the stock and payments shown right after a write include it even
+// while the replica catches up
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+    
+    static final String COOKIE_NAME = "shopify_read_primary";
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+    
+    private final Duration window;
+    
+    public ReadYourWritesInterceptor(Duration window) {
+        this.window = window;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!SAFE_METHODS.contains(request.getMethod())) {
+            ReadYourWrites.pinToPrimary();
+            ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, "1")
+                .path("/api")
+                .maxAge(window)
+                .httpOnly(true)
+                .sameSite("Lax")
+                .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        } else {
+            Cookie cookie = WebUtils.getCookie(request, COOKIE_NAME);
+            if (cookie != null) {
+                ReadYourWrites.pinToPrimary();
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReadYourWrites.clear();
+    }
+    
+    // Streaming responses (e.g. /api/events) release the request thread without afterCompletion
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReadYourWrites.clear();
+    }
+}
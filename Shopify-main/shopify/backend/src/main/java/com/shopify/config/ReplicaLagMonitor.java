@@ -0,0 +1,60 @@
+package com.shopify.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Polls how far the replica's replay is behind. A replica that has replayed everything it received counts as
+// caught up even when the primary has been idle, but only while its WAL receiver is streaming: with replication
+// broken nothing new arrives, so "replayed everything" would look healthy forever. No streaming receiver counts
+// as unusable (the status column is only visible to roles with pg_read_all_stats, e.g. via pg_monitor).
+// A server that is not in recovery (e.g. a second local instance) reports no lag. Until the first successful
+// check, and whenever one fails, reads use the primary.
+public class ReplicaLagMonitor {
+    
+    private static final String LAG_SQL =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL " +
+            "WHEN pg_last_wal_receive_lsn() <= pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final double maxLagSeconds;
+    
+    private volatile double lagSeconds = Double.NaN;
+    private volatile boolean replicaUsable;
+    
+    public ReplicaLagMonitor(DataSource replica, MeterRegistry meterRegistry, Duration maxLag) {
+        this.jdbcTemplate = new JdbcTemplate(replica);
+        this.jdbcTemplate.setQueryTimeout(2);
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        Gauge.builder("shopify.db.replica.lag", this, monitor -> monitor.lagSeconds)
+            .description("Replication lag of the read replica in seconds (NaN when it cannot be reached)")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        Gauge.builder("shopify.db.replica.usable", this, monitor -> monitor.replicaUsable ? 1 : 0)
+            .description("1 while read-only transactions are routed to the replica")
+            .register(meterRegistry);
+    }
+    
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+    
+    @Scheduled(fixedDelayString = "${shopify.datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        try {
+            Double lag = jdbcTemplate.queryForObject(LAG_SQL, Double.class);
+            lagSeconds = lag == null ? Double.NaN : lag;
+            replicaUsable = lag != null && lag <= maxLagSeconds;
+        } catch (DataAccessException e) {
+            lagSeconds = Double.NaN;
+            replicaUsable = false;
+        }
+    }
+}
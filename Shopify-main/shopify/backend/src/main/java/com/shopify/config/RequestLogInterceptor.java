@@ -0,0 +1,134 @@
+package com.shopify.config;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Structured request log (logger com.shopify.request). Each endpoint logs a sample of its requests at
+// shopify.request-log.sample-rate, overridable per handler (shopify.request-log.sample-rate.ProductController.reduceStock).
+// Server errors and slow requests are always candidates, but no endpoint logs more than max-per-second events,
+// so the volume stays flat however much traffic arrives; the events left out are counted in the next one.
+@Slf4j(topic = "com.shopify.request")
+@Component
+public class RequestLogInterceptor implements HandlerInterceptor {
+    
+    private static final String START_ATTRIBUTE = RequestLogInterceptor.class.getName() + ".start";
+    private static final String SAMPLE_RATE = "shopify.request-log.sample-rate";
+    
+    private final Environment environment;
+    private final double defaultSampleRate;
+    private final long slowThresholdNanos;
+    private final int maxPerSecond;
+    private final Map<Method, Endpoint> endpoints = new ConcurrentHashMap<>();
+    
+    public RequestLogInterceptor(Environment environment,
+                                 @Value("${" + SAMPLE_RATE + ":0.01}") double defaultSampleRate,
+                                 @Value("${shopify.request-log.slow-threshold:500ms}") Duration slowThreshold,
+                                 @Value("${shopify.request-log.max-per-second:10}") int maxPerSecond) {
+        this.environment = environment;
+        this.defaultSampleRate = defaultSampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.maxPerSecond = maxPerSecond;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Async requests come through again when they resume; keep the original start
+        if (request.getAttribute(START_ATTRIBUTE) == null) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!log.isInfoEnabled() || !(handler instanceof HandlerMethod handlerMethod)
+                || !(request.getAttribute(START_ATTRIBUTE) instanceof Long start)) {
+            return;
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        int status = response.getStatus();
+        String reason;
+        if (ex != null || status >= 500) {
+            reason = "error";
+        } else if (elapsedNanos >= slowThresholdNanos && request.getDispatcherType() != DispatcherType.ASYNC) {
+            // Streaming responses (live updates, exports) are long by design
+            reason = "slow";
+        } else {
+            reason = null;
+        }
+        
+        Endpoint endpoint = endpoints.computeIfAbsent(handlerMethod.getMethod(), method -> {
+            String name = MetricsConfig.handlerName(handlerMethod);
+            return new Endpoint(name, environment.getProperty(SAMPLE_RATE + "." + name, Double.class, defaultSampleRate));
+        });
+        if (reason == null) {
+            if (endpoint.sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= endpoint.sampleRate) {
+                return;
+            }
+            reason = "sampled";
+        }
+        long suppressed = endpoint.admit(System.currentTimeMillis() / 1000, maxPerSecond);
+        if (suppressed < 0) {
+            return;
+        }
+        
+        LoggingEventBuilder event = log.atInfo().setMessage("Request")
+            .addKeyValue("method", request.getMethod())
+            .addKeyValue("route", request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE))
+            .addKeyValue("handler", endpoint.name)
+            .addKeyValue("status", status)
+            .addKeyValue("durationMs", elapsedNanos / 1_000_000)
+            .addKeyValue("queries", QueryCountInspector.count())
+            .addKeyValue("reason", reason)
+            .addKeyValue("sampleRate", endpoint.sampleRate)
+            .addKeyValue("suppressed", suppressed);
+        if (ex != null) {
+            event.addKeyValue("error", ex.getClass().getSimpleName());
+        }
+        event.log();
+    }
+    
+    private static final class Endpoint {
+        
+        private final String name;
+        private final double sampleRate;
+        private final AtomicLong second = new AtomicLong();
+        private final AtomicInteger logged = new AtomicInteger();
+        private final AtomicLong suppressed = new AtomicLong();
+        
+        private Endpoint(String name, double sampleRate) {
+            this.name = name;
+            this.sampleRate = sampleRate;
+        }
+        
+        // Number of events left out since the last one logged, or -1 when this second's budget is spent
+        private long admit(long currentSecond, int maxPerSecond) {
+            long windowSecond = second.get();
+            if (windowSecond != currentSecond && second.compareAndSet(windowSecond, currentSecond)) {
+                logged.set(0);
+            }
+            if (logged.incrementAndGet() > maxPerSecond) {
+                suppressed.incrementAndGet();
+                return -1;
+            }
+            return suppressed.getAndSet(0);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.shopify.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Besides JSON, every /api endpoint can answer in CBOR (Accept: application/cbor) or Smile
+// (Accept: application/x-jackson-smile), and accept request bodies in them. Both mappers start from
+// Boot's configured builder, so they see the same modules and spring.jackson settings as JSON.
+@Configuration
+public class SerializationConfig {
+    
+    // Jackson's default buffer pool is per thread, which recycles nothing on virtual threads; a shared pool
+    // lets every request reuse the same output buffers
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sharedBufferPoolCustomizer() {
+        return builder -> builder.postConfigurer(mapper ->
+            mapper.getFactory().setRecyclerPool(JsonRecyclerPools.sharedConcurrentDequePool()));
+    }
+    
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(binaryMapper(builder, new CBORFactory()));
+    }
+    
+    // Smile back-references repeated names and short string values, so the category embedded in every
+    // product row and repeated payment modes and statuses are written once per response
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        SmileFactory factory = SmileFactory.builder()
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+            .build();
+        return new MappingJackson2SmileHttpMessageConverter(binaryMapper(builder, factory));
+    }
+    
+    // Generator for the NDJSON exports: callers write one value and a '\n' per line. Jackson would otherwise
+    // put a space between root values, so every line after the first started with one. The caller owns out.
+    public static JsonGenerator ndjsonGenerator(ObjectMapper mapper, OutputStream out) throws IOException {
+        return mapper.getFactory().createGenerator(out)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .setRootValueSeparator(null);
+    }
+    
+    // Dates go out as numeric arrays rather than ISO strings; binary clients decode them without parsing
+    private static ObjectMapper binaryMapper(Jackson2ObjectMapperBuilder builder, JsonFactory factory) {
+        return builder.factory(factory)
+            .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    }
+}
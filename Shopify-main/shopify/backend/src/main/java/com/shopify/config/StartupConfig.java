@@ -0,0 +1,23 @@
+package com.shopify.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+
+// The prod profile starts with spring.main.lazy-initialization=true, so beans are built on first use.
+// Event listener beans are fine that way (Spring creates them on their first event), but @Scheduled
+// methods are only registered once their bean exists, so those beans are still created at startup
+@Configuration
+public class StartupConfig {
+    
+    // Static so the filter is in place before lazy initialization is applied to the bean definitions
+    @Bean
+    public static LazyInitializationExcludeFilter scheduledBeansExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+            && !MethodIntrospector.selectMethods(beanType, (MethodIntrospector.MetadataLookup<Scheduled>) method ->
+                AnnotatedElementUtils.findMergedAnnotation(method, Scheduled.class)).isEmpty();
+    }
+}
@@ -1,7 +1,7 @@
 package com.shopify.controller;
 
-import com.shopify.entity.Category;
-import com.shopify.repository.CategoryRepository;
+import com.shopify.dto.CategoryDTO;
+import com.shopify.service.ReferenceDataService;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -9,15 +9,15 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/categories")
 public class CategoryController {
-
-    private final CategoryRepository categoryRepository;
-
-    public CategoryController(CategoryRepository categoryRepository) {
-        this.categoryRepository = categoryRepository;
+    
+    private final ReferenceDataService referenceDataService;
+    
+    public CategoryController(ReferenceDataService referenceDataService) {
+        this.referenceDataService = referenceDataService;
     }
-
+    
     @GetMapping
-    public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+    public List<CategoryDTO> getAllCategories() {
+        return referenceDataService.getCategories().stream().map(CategoryDTO::from).toList();
     }
 }
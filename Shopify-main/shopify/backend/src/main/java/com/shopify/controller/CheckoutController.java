@@ -0,0 +1,32 @@
+package com.shopify.controller;
+
+import com.shopify.dto.CheckoutRequestDTO;
+import com.shopify.dto.CheckoutResponseDTO;
+import com.shopify.service.CheckoutService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/checkout")
+@RequiredArgsConstructor
+public class CheckoutController {
+    
+    private final CheckoutService checkoutService;
+    
+    @PostMapping
+    public ResponseEntity<?> checkout(@RequestBody CheckoutRequestDTO requestDTO) {
+        try {
+            CheckoutResponseDTO response = checkoutService.checkout(requestDTO);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.shopify.controller;
+
+import com.shopify.service.LiveUpdateBroadcaster;
+import com.shopify.service.LiveUpdateBroadcaster.Topic;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+public class LiveUpdateController {
+    
+    private final LiveUpdateBroadcaster liveUpdateBroadcaster;
+    
+    // Server-sent events: product, product-deleted, stock and catalog (topic products), payment (topic
+    // payments), and resync when the client should reload its lists. Unknown topics get 400, and 503 is
+    // returned once shopify.live-updates.max-subscribers connections are open.
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(@RequestParam(defaultValue = "products") Set<String> topics) {
+        Set<Topic> selected = EnumSet.noneOf(Topic.class);
+        try {
+            for (String topic : topics) {
+                selected.add(Topic.valueOf(topic.trim().toUpperCase(Locale.ROOT)));
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        try {
+            return ResponseEntity.ok(liveUpdateBroadcaster.subscribe(selected));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
@@ -1,36 +1,76 @@
 package com.shopify.controller;
 
+import com.shopify.dto.FieldSelection;
+import com.shopify.dto.PaymentField;
 import com.shopify.dto.PaymentRequestDTO;
 import com.shopify.dto.PaymentResponseDTO;
+import com.shopify.dto.PaymentStatsBreakdownDTO;
+import com.shopify.dto.PaymentStatsPointDTO;
 import com.shopify.entity.Payment.PaymentStatus;
+import com.shopify.service.PaymentAnalyticsService;
+import com.shopify.service.PaymentAnalyticsService.Granularity;
 import com.shopify.service.PaymentService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/payments")
 public class PaymentController {
     
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    
     @Autowired
     private PaymentService paymentService;
     
+    @Autowired
+    private PaymentAnalyticsService paymentAnalyticsService;
+    
     @PostMapping
     public ResponseEntity<?> createPayment(@RequestBody PaymentRequestDTO requestDTO) {
         try {
             PaymentResponseDTO response = paymentService.createPayment(requestDTO);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    // All or nothing: one invalid entry rejects the whole batch
+    @PostMapping("/batch")
+    public ResponseEntity<?> createPayments(@RequestBody List<PaymentRequestDTO> requestDTOs) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(paymentService.createPayments(requestDTOs));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
     
+    // fields=id,amount,... returns only those fields of each payment, read without the other columns
     @GetMapping
-    public ResponseEntity<List<PaymentResponseDTO>> getAllPayments() {
-        return ResponseEntity.ok(paymentService.getAllPayments());
+    public ResponseEntity<?> getAllPayments(@RequestParam(required = false) String fields) {
+        return listPayments(fields, null);
+    }
+    
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam(required = false) PaymentStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StreamingResponseBody body = out -> paymentService.exportPayments(status, from, to, out);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
     }
     
     @GetMapping("/{id}")
@@ -54,8 +94,9 @@ public class PaymentController {
     }
     
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<PaymentResponseDTO>> getPaymentsByStatus(@PathVariable PaymentStatus status) {
-        return ResponseEntity.ok(paymentService.getPaymentsByStatus(status));
+    public ResponseEntity<?> getPaymentsByStatus(@PathVariable PaymentStatus status,
+                                                 @RequestParam(required = false) String fields) {
+        return listPayments(fields, status);
     }
     
     @PatchMapping("/{id}/status")
@@ -65,6 +106,8 @@ public class PaymentController {
         try {
             PaymentResponseDTO updated = paymentService.updatePaymentStatus(id, status);
             return ResponseEntity.ok(updated);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -79,4 +122,45 @@ public class PaymentController {
     public ResponseEntity<Long> getPaymentCountByStatus(@PathVariable PaymentStatus status) {
         return ResponseEntity.ok(paymentService.getPaymentCountByStatus(status));
     }
+    
+    // Range endpoints are served from in-memory hourly rollups; 'from' defaults to one day (HOUR) or
+    // thirty days (DAY) before 'to', which defaults to now
+    @GetMapping("/stats/timeseries")
+    public ResponseEntity<?> getPaymentTimeSeries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "HOUR") Granularity granularity,
+            @RequestParam(required = false) PaymentStatus status,
+            @RequestParam(required = false) Long paymentModeId) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : (granularity == Granularity.DAY ? end.minusDays(30) : end.minusDays(1));
+        try {
+            List<PaymentStatsPointDTO> series = paymentAnalyticsService.getTimeSeries(start, end, granularity, status, paymentModeId);
+            return ResponseEntity.ok(series);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    @GetMapping("/stats/breakdown")
+    public ResponseEntity<List<PaymentStatsBreakdownDTO>> getPaymentBreakdown(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(30);
+        return ResponseEntity.ok(paymentAnalyticsService.getBreakdown(start, end));
+    }
+    
+    private ResponseEntity<?> listPayments(String fields, PaymentStatus status) {
+        Set<PaymentField> selected;
+        try {
+            selected = FieldSelection.parse(fields, PaymentField.class);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        if (selected != null) {
+            return ResponseEntity.ok(paymentService.getPaymentFields(selected, status));
+        }
+        return ResponseEntity.ok(status == null ? paymentService.getAllPayments() : paymentService.getPaymentsByStatus(status));
+    }
 }
@@ -1,6 +1,6 @@
 package com.shopify.controller;
 
-import com.shopify.entity.PaymentMode;
+import com.shopify.dto.PaymentModeDTO;
 import com.shopify.service.PaymentModeService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -16,26 +16,26 @@ public class PaymentModeController {
     private PaymentModeService paymentModeService;
     
     @GetMapping
-    public ResponseEntity<List<PaymentMode>> getAllPaymentModes() {
+    public ResponseEntity<List<PaymentModeDTO>> getAllPaymentModes() {
         return ResponseEntity.ok(paymentModeService.getAllPaymentModes());
     }
     
     @GetMapping("/active")
-    public ResponseEntity<List<PaymentMode>> getActivePaymentModes() {
+    public ResponseEntity<List<PaymentModeDTO>> getActivePaymentModes() {
         return ResponseEntity.ok(paymentModeService.getActivePaymentModes());
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<PaymentMode> getPaymentModeById(@PathVariable Long id) {
+    public ResponseEntity<PaymentModeDTO> getPaymentModeById(@PathVariable Long id) {
         return paymentModeService.getPaymentModeById(id)
             .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
     
     @PostMapping
-    public ResponseEntity<PaymentMode> createPaymentMode(@RequestBody PaymentMode paymentMode) {
+    public ResponseEntity<PaymentModeDTO> createPaymentMode(@RequestBody PaymentModeDTO paymentMode) {
         try {
-            PaymentMode created = paymentModeService.createPaymentMode(paymentMode);
+            PaymentModeDTO created = paymentModeService.createPaymentMode(paymentMode);
             return ResponseEntity.status(HttpStatus.CREATED).body(created);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
@@ -43,11 +43,11 @@ public class PaymentModeController {
     }
     
     @PutMapping("/{id}")
-    public ResponseEntity<PaymentMode> updatePaymentMode(
+    public ResponseEntity<PaymentModeDTO> updatePaymentMode(
             @PathVariable Long id, 
-            @RequestBody PaymentMode paymentMode) {
+            @RequestBody PaymentModeDTO paymentMode) {
         try {
-            PaymentMode updated = paymentModeService.updatePaymentMode(id, paymentMode);
+            PaymentModeDTO updated = paymentModeService.updatePaymentMode(id, paymentMode);
             return ResponseEntity.ok(updated);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
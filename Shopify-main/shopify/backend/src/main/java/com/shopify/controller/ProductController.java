@@ -1,60 +1,193 @@
 package com.shopify.controller;
 
+import com.shopify.dto.CacheStatsDTO;
+import com.shopify.dto.FieldSelection;
+import com.shopify.dto.ProductChangesDTO;
+import com.shopify.dto.ProductDTO;
+import com.shopify.dto.ProductField;
+import com.shopify.dto.ProductImportResultDTO;
+import com.shopify.dto.ProductSearchResultDTO;
+import com.shopify.dto.StockReductionDTO;
 import com.shopify.entity.Category;
 import com.shopify.entity.Product;
+import com.shopify.event.ProductChangedEvent;
 import com.shopify.repository.CategoryRepository;
 import com.shopify.repository.ProductRepository;
+import com.shopify.service.CatalogChangeLog;
+import com.shopify.service.InventoryService;
+import com.shopify.service.ProductBulkService;
+import com.shopify.service.ProductCacheService;
+import com.shopify.service.ProductCatalogService;
+import com.shopify.service.ProductRangeIndex;
+import com.shopify.service.ProductSearchIndex;
+import com.shopify.service.ReferenceDataService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
+@Slf4j
 public class ProductController {
     
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final InventoryService inventoryService;
+    private final ProductCatalogService productCatalogService;
+    private final ProductCacheService productCacheService;
+    private final ReferenceDataService referenceDataService;
+    private final ProductBulkService productBulkService;
+    private final ProductSearchIndex productSearchIndex;
+    private final CatalogChangeLog catalogChangeLog;
+    private final ApplicationEventPublisher eventPublisher;
     
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    
+    // Without paging parameters the full list is returned as before; any of limit/cursor/sort switches
+    // to keyset pages of ProductPageDTO. Price/stock bounds (inclusive) page through the range index.
+    // fields=id,name,price returns only those fields of each product, and the query reads only their columns.
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(productRepository.findAll());
+    public ResponseEntity<?> getAllProducts(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Integer minStock,
+            @RequestParam(required = false) Integer maxStock,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) String fields) {
+        try {
+            Set<ProductField> selected = FieldSelection.parse(fields, ProductField.class);
+            if (limit == null && cursor == null && sort == null && direction == null && categoryId == null
+                    && minPrice == null && maxPrice == null && minStock == null && maxStock == null && inStock == null) {
+                return selected == null
+                    ? cachedResponse(productCacheService.getAllProducts())
+                    : ResponseEntity.ok(productCatalogService.getProductFields(selected));
+            }
+            
+            ProductRangeIndex.Bounds bounds = ProductRangeIndex.Bounds.of(minPrice, maxPrice, minStock, maxStock, inStock);
+            return ResponseEntity.ok(productCatalogService.getProductPage(sort, direction, categoryId, cursor, limit, bounds, selected));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    // Products with stock at or below threshold (default shopify.catalog.low-stock-threshold), lowest first
+    @GetMapping("/low-stock")
+    public ResponseEntity<?> getLowStockProducts(
+            @RequestParam(required = false) Integer threshold,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
+        try {
+            Set<ProductField> selected = FieldSelection.parse(fields, ProductField.class);
+            return ResponseEntity.ok(productCatalogService.getLowStockPage(threshold, categoryId, cursor, limit, selected));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    // Delta sync: products created, updated or deleted, and stock changes, after version since. Without since,
+    // or when since is older than the change log, a snapshot of the whole catalog is returned instead.
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangesDTO> getProductChanges(@RequestParam(required = false) String since) {
+        return ResponseEntity.ok(catalogChangeLog.changesSince(since));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        return productRepository.findById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
+        return productCacheService.getProduct(id)
+                .map(this::cachedResponse)
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    // Every word of q matches as a prefix of a product or category name word, so partial input works for autocomplete
+    @GetMapping("/search")
+    public ResponseEntity<?> searchProducts(
+            @RequestParam String q,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            ProductSearchResultDTO result = productSearchIndex.search(q, categoryId, limit);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    @GetMapping("/cache/stats")
+    public ResponseEntity<CacheStatsDTO> getCacheStats() {
+        return ResponseEntity.ok(productCacheService.getStats());
+    }
+    
     @PostMapping
-    public ResponseEntity<Product> createProduct(@RequestBody Map<String, Object> productData) {
+    public ResponseEntity<ProductDTO> createProduct(@RequestBody Map<String, Object> productData) {
         try {
-            Product product = new Product();
-            product.setName((String) productData.get("name"));
-            product.setPrice(((Number) productData.get("price")).doubleValue());
-            product.setTotalItemsInStock(((Number) productData.get("totalItemsInStock")).intValue());
-            product.setImageUrl((String) productData.get("imageUrl"));
-            
-            Long categoryId = ((Number) productData.get("categoryId")).longValue();
-            Category category = categoryRepository.findById(categoryId)
-                    .orElseThrow(() -> new RuntimeException("Category not found"));
-            product.setCategory(category);
-            
-            Product savedProduct = productRepository.save(product);
-            return ResponseEntity.status(HttpStatus.CREATED).body(savedProduct);
+            Product savedProduct = productRepository.save(toProduct(productData));
+            eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getId(), savedProduct));
+            return ResponseEntity.status(HttpStatus.CREATED).body(ProductDTO.from(savedProduct));
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
     
+    // Same fields as a single create; saved in one transaction with batched inserts, all or nothing
+    @PostMapping("/batch")
+    public ResponseEntity<List<ProductDTO>> createProducts(@RequestBody List<Map<String, Object>> productData) {
+        List<Product> products;
+        try {
+            products = productData.stream().map(this::toProduct).toList();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        List<Product> savedProducts = productRepository.saveAll(products);
+        savedProducts.forEach(product -> eventPublisher.publishEvent(new ProductChangedEvent(product.getId(), product)));
+        return ResponseEntity.status(HttpStatus.CREATED).body(savedProducts.stream().map(ProductDTO::from).toList());
+    }
+    
+    // Streams a CSV (with header row) or NDJSON body; the format follows Content-Type
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    public ResponseEntity<ProductImportResultDTO> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) {
+        ProductBulkService.Format format = contentType.isCompatibleWith(CSV)
+                ? ProductBulkService.Format.CSV
+                : ProductBulkService.Format.NDJSON;
+        return ResponseEntity.ok(productBulkService.importProducts(body, format));
+    }
+    
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "CSV") ProductBulkService.Format format) {
+        StreamingResponseBody body = out -> productBulkService.exportProducts(format, out);
+        return ResponseEntity.ok()
+                .contentType(format == ProductBulkService.Format.CSV ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=products." + format.name().toLowerCase())
+                .body(body);
+    }
+    
     @PutMapping("/{id}")
-    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Map<String, Object> productData) {
+    public ResponseEntity<ProductDTO> updateProduct(@PathVariable Long id, @RequestBody Map<String, Object> productData) {
         return productRepository.findById(id)
                 .map(product -> {
                     product.setName((String) productData.get("name"));
@@ -63,12 +196,13 @@ public class ProductController {
                     product.setImageUrl((String) productData.get("imageUrl"));
                     
                     Long categoryId = ((Number) productData.get("categoryId")).longValue();
-                    Category category = categoryRepository.findById(categoryId)
+                    Category category = findCategory(categoryId)
                             .orElseThrow(() -> new RuntimeException("Category not found"));
                     product.setCategory(category);
                     
                     Product updatedProduct = productRepository.save(product);
-                    return ResponseEntity.ok(updatedProduct);
+                    eventPublisher.publishEvent(new ProductChangedEvent(updatedProduct.getId(), updatedProduct));
+                    return ResponseEntity.ok(ProductDTO.from(updatedProduct));
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -77,40 +211,77 @@ public class ProductController {
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         if (productRepository.existsById(id)) {
             productRepository.deleteById(id);
+            eventPublisher.publishEvent(new ProductChangedEvent(id, null));
             return ResponseEntity.ok().build();
         }
         return ResponseEntity.notFound().build();
     }
     
     @PatchMapping("/{id}/reduce-stock")
-    public ResponseEntity<Product> reduceStock(@PathVariable Long id, @RequestBody Map<String, Object> requestData) {
-        System.out.println("📦 Received stock reduction request for Product ID: " + id);
-        System.out.println("Request data: " + requestData);
+    public ResponseEntity<StockReductionDTO> reduceStock(@PathVariable Long id, @RequestBody Map<String, Object> requestData) {
+        Integer quantity = exactInt(requestData.get("quantity"));
+        if (quantity == null) {
+            return ResponseEntity.badRequest().build();
+        }
         
-        return productRepository.findById(id)
-                .map(product -> {
-                    int quantity = ((Number) requestData.get("quantity")).intValue();
-                    int currentStock = product.getTotalItemsInStock();
-                    
-                    System.out.println("Product: " + product.getName());
-                    System.out.println("Current stock: " + currentStock);
-                    System.out.println("Quantity to reduce: " + quantity);
-                    
-                    if (currentStock >= quantity) {
-                        int newStock = currentStock - quantity;
-                        product.setTotalItemsInStock(newStock);
-                        Product updatedProduct = productRepository.save(product);
-                        
-                        System.out.println("✅ Stock updated! New stock: " + newStock);
-                        return ResponseEntity.ok(updatedProduct);
-                    } else {
-                        System.out.println("❌ Insufficient stock! Cannot reduce by " + quantity);
-                        return ResponseEntity.badRequest().<Product>build();
-                    }
-                })
-                .orElseGet(() -> {
-                    System.out.println("❌ Product not found with ID: " + id);
-                    return ResponseEntity.notFound().build();
-                });
+        try {
+            StockReductionDTO result = inventoryService.reduceStock(id, quantity);
+            // One event per call, so DEBUG only; the guard skips building it (and boxing the numbers) otherwise
+            if (log.isDebugEnabled()) {
+                log.atDebug().setMessage("Stock reduction")
+                    .addKeyValue("productId", id)
+                    .addKeyValue("quantity", result.getQuantity())
+                    .addKeyValue("status", result.getStatus())
+                    .addKeyValue("remainingStock", result.getRemainingStock())
+                    .log();
+            }
+            return switch (result.getStatus()) {
+                case REDUCED -> ResponseEntity.ok(result);
+                case SOLD_OUT -> ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+                case NOT_FOUND -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(result);
+            };
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Whole numbers within int range only; 2.5 or 1e12 is rejected rather than truncated
+    private static Integer exactInt(Object value) {
+        if (!(value instanceof Number number)) {
+            return null;
+        }
+        try {
+            return new BigDecimal(number.toString()).intValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    private Product toProduct(Map<String, Object> productData) {
+        Product product = new Product();
+        product.setName((String) productData.get("name"));
+        product.setPrice(((Number) productData.get("price")).doubleValue());
+        product.setTotalItemsInStock(((Number) productData.get("totalItemsInStock")).intValue());
+        product.setImageUrl((String) productData.get("imageUrl"));
+        
+        Long categoryId = ((Number) productData.get("categoryId")).longValue();
+        Category category = findCategory(categoryId)
+                .orElseThrow(() -> new RuntimeException("Category not found"));
+        product.setCategory(category);
+        return product;
+    }
+    
+    // Categories come from the reference data snapshot; the database is only asked about unknown ids
+    private Optional<Category> findCategory(Long categoryId) {
+        return referenceDataService.getCategory(categoryId)
+                .or(() -> categoryRepository.findById(categoryId));
+    }
+    
+    // Spring answers 304 itself when If-None-Match matches the ETag, before any body is written
+    private <T> ResponseEntity<T> cachedResponse(ProductCacheService.Cached<T> cached) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(cached.etag())
+                .body(cached.value());
     }
 }
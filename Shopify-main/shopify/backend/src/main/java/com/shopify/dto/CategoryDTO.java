@@ -0,0 +1,18 @@
+package com.shopify.dto;
+
+import com.shopify.entity.Category;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryDTO {
+    private Long id;
+    private String name;
+    
+    public static CategoryDTO from(Category category) {
+        return new CategoryDTO(category.getId(), category.getName());
+    }
+}
@@ -0,0 +1,13 @@
+package com.shopify.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutItemDTO {
+    private Long productId;
+    private int quantity;
+}
@@ -0,0 +1,16 @@
+package com.shopify.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutLineDTO {
+    private Long productId;
+    private String name;
+    private int quantity;
+    private double unitPrice;
+    private int remainingStock;
+}
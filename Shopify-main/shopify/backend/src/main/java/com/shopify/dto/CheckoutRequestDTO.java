@@ -0,0 +1,16 @@
+package com.shopify.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutRequestDTO {
+    private Long paymentModeId;
+    private String transactionId;
+    private String remarks;
+    private List<CheckoutItemDTO> items;
+}
@@ -0,0 +1,14 @@
+package com.shopify.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutResponseDTO {
+    private PaymentResponseDTO payment;
+    private List<CheckoutLineDTO> lines;
+}
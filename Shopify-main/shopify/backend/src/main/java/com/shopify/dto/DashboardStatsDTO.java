@@ -1,7 +1,5 @@
 package com.shopify.dto;
 
-import com.shopify.entity.Category;
-import com.shopify.entity.Payment;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -13,8 +11,8 @@ import java.util.List;
 @AllArgsConstructor
 public class DashboardStatsDTO {
     private long totalProducts;
-    private List<Category> categories;
+    private List<CategoryDTO> categories;
     private Double totalValue;
     private Long totalItemsInStock;
-    private List<Payment> recentPayments; // Recent 5 payments
+    private List<PaymentResponseDTO> recentPayments; // Recent 5 payments
 }
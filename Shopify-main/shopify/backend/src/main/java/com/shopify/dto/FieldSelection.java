@@ -0,0 +1,36 @@
+package com.shopify.dto;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// Parses a ?fields=id,name,price parameter against one of the field enums. The set keeps declaration order,
+// so projected rows always list their keys the same way. null means no selection: callers return the full DTO.
+public final class FieldSelection {
+    
+    private FieldSelection() {
+    }
+    
+    public static <E extends Enum<E> & Field> Set<E> parse(String fields, Class<E> type) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        
+        Set<E> selected = EnumSet.noneOf(type);
+        for (String name : fields.split(",")) {
+            String property = name.trim();
+            if (property.isEmpty()) {
+                continue;
+            }
+            selected.add(EnumSet.allOf(type).stream()
+                .filter(field -> field.property().equals(property))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown field: " + property)));
+        }
+        return selected.isEmpty() ? null : selected;
+    }
+    
+    public interface Field {
+        // The JSON property, which is also the entity attribute it is read from
+        String property();
+    }
+}
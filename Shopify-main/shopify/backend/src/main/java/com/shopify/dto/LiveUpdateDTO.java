@@ -0,0 +1,15 @@
+package com.shopify.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One server-sent event on /api/events: name is the SSE event name, data its JSON payload, serialized once
+// and shared by every subscriber
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveUpdateDTO {
+    private String name;
+    private String data;
+}
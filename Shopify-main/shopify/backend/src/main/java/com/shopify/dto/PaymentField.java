@@ -0,0 +1,24 @@
+package com.shopify.dto;
+
+// Selectable fields of a payment (?fields= on the payment list endpoints), named as in PaymentResponseDTO
+public enum PaymentField implements FieldSelection.Field {
+    ID("id"),
+    PAYMENT_DATE("paymentDate"),
+    // The mode name; the only field that needs the payment_modes join
+    PAYMENT_MODE("paymentMode"),
+    TRANSACTION_ID("transactionId"),
+    AMOUNT("amount"),
+    STATUS("status"),
+    REMARKS("remarks");
+    
+    private final String property;
+    
+    PaymentField(String property) {
+        this.property = property;
+    }
+    
+    @Override
+    public String property() {
+        return property;
+    }
+}
@@ -0,0 +1,19 @@
+package com.shopify.dto;
+
+import com.shopify.entity.PaymentMode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentModeDTO {
+    private Long id;
+    private String mode;
+    private Boolean isActive = true;
+    
+    public static PaymentModeDTO from(PaymentMode paymentMode) {
+        return new PaymentModeDTO(paymentMode.getId(), paymentMode.getMode(), paymentMode.getIsActive());
+    }
+}
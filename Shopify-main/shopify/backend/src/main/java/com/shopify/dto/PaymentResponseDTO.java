@@ -1,5 +1,6 @@
 package com.shopify.dto;
 
+import com.shopify.entity.Payment;
 import com.shopify.entity.Payment.PaymentStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -18,4 +19,16 @@ public class PaymentResponseDTO {
     private BigDecimal amount;
     private PaymentStatus status;
     private String remarks;
+    
+    public static PaymentResponseDTO from(Payment payment) {
+        return new PaymentResponseDTO(
+            payment.getId(),
+            payment.getPaymentDate(),
+            payment.getPaymentMode().getMode(),
+            payment.getTransactionId(),
+            payment.getAmount(),
+            payment.getStatus(),
+            payment.getRemarks()
+        );
+    }
 }
@@ -0,0 +1,18 @@
+package com.shopify.dto;
+
+import com.shopify.entity.Payment.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentStatsBreakdownDTO {
+    private Long paymentModeId;
+    private String paymentMode;
+    private PaymentStatus status;
+    private long count;
+    private BigDecimal amount;
+}
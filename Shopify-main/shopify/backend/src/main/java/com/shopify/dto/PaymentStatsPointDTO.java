@@ -0,0 +1,16 @@
+package com.shopify.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentStatsPointDTO {
+    private LocalDateTime bucketStart;
+    private long count;
+    private BigDecimal amount;
+}
@@ -0,0 +1,29 @@
+package com.shopify.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangesDTO {
+    // Opaque token; pass as since on the next call
+    private String version;
+    // true: upserted is the whole catalog and replaces the client's copy
+    private boolean snapshot;
+    private List<ProductDTO> upserted;
+    // Products whose stock changed (reduce-stock, checkout) while nothing else about them did
+    private List<StockLevel> stock;
+    private List<Long> deleted;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StockLevel {
+        private Long id;
+        private int totalItemsInStock;
+    }
+}
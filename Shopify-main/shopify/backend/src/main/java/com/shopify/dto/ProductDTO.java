@@ -0,0 +1,28 @@
+package com.shopify.dto;
+
+import com.shopify.entity.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A product as the API returns it; the category is reduced to its id and name
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductDTO {
+    private Long id;
+    private String name;
+    private double price;
+    private int totalItemsInStock;
+    private String imageUrl;
+    private CategoryDTO category;
+    
+    public static ProductDTO from(Product product) {
+        return new ProductDTO(product.getId(), product.getName(), product.getPrice(), product.getTotalItemsInStock(),
+                              product.getImageUrl(), CategoryDTO.from(product.getCategory()));
+    }
+    
+    public ProductDTO withStock(int stock) {
+        return new ProductDTO(id, name, price, stock, imageUrl, category);
+    }
+}
@@ -0,0 +1,47 @@
+package com.shopify.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Selectable fields of a product (?fields= on the product list endpoints)
+public enum ProductField implements FieldSelection.Field {
+    ID("id"),
+    NAME("name"),
+    PRICE("price"),
+    TOTAL_ITEMS_IN_STOCK("totalItemsInStock"),
+    IMAGE_URL("imageUrl"),
+    // { id, name }; the only field that needs the categories join
+    CATEGORY("category");
+    
+    private final String property;
+    
+    ProductField(String property) {
+        this.property = property;
+    }
+    
+    @Override
+    public String property() {
+        return property;
+    }
+    
+    public Object valueOf(ProductDTO product) {
+        return switch (this) {
+            case ID -> product.getId();
+            case NAME -> product.getName();
+            case PRICE -> product.getPrice();
+            case TOTAL_ITEMS_IN_STOCK -> product.getTotalItemsInStock();
+            case IMAGE_URL -> product.getImageUrl();
+            case CATEGORY -> product.getCategory();
+        };
+    }
+    
+    // For products that are already in memory (range index pages); database reads select the fields instead
+    public static Map<String, Object> project(ProductDTO product, Set<ProductField> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (ProductField field : fields) {
+            row.put(field.property, field.valueOf(product));
+        }
+        return row;
+    }
+}
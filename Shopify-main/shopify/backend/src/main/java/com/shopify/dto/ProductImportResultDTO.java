@@ -0,0 +1,26 @@
+package com.shopify.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResultDTO {
+    private long imported;
+    private long failed;
+    // Capped; failed is the full count
+    private List<RowError> errors;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        // 1-based data row (CSV, excluding the header) or line (NDJSON)
+        private long row;
+        private String message;
+    }
+}
@@ -0,0 +1,15 @@
+package com.shopify.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+// items are ProductDTOs, or maps of just the selected fields when ?fields= is given
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPageDTO<T> {
+    private List<T> items;
+    private String nextCursor; // null on the last page
+}
@@ -0,0 +1,22 @@
+package com.shopify.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One product in the bulk import/export formats (CSV columns in this order, or one NDJSON object).
+// On import id is ignored, and the category is taken from categoryId when given, otherwise by name.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonPropertyOrder({"id", "name", "price", "totalItemsInStock", "imageUrl", "category", "categoryId"})
+public class ProductRowDTO {
+    private Long id;
+    private String name;
+    private Double price;
+    private Integer totalItemsInStock;
+    private String imageUrl;
+    private String category;
+    private Long categoryId;
+}
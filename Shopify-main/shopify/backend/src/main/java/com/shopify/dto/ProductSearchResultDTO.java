@@ -0,0 +1,42 @@
+package com.shopify.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResultDTO {
+    private String query;
+    // Matches before the limit (and within categoryId, when given)
+    private long total;
+    private List<Hit> hits;
+    // Matches per category, ignoring the categoryId filter so the other categories can be offered too
+    private List<CategoryFacet> facets;
+    
+    // Same shape as a product in GET /api/products, plus the relevance score
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Hit {
+        private Long id;
+        private String name;
+        private double price;
+        private int totalItemsInStock;
+        private String imageUrl;
+        private CategoryDTO category;
+        private double score;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryFacet {
+        private Long categoryId;
+        private String name;
+        private long count;
+    }
+}
@@ -0,0 +1,8 @@
+package com.shopify.dto;
+
+public interface ProductStockView {
+    Long getId();
+    String getName();
+    double getPrice();
+    int getTotalItemsInStock();
+}
@@ -0,0 +1,21 @@
+package com.shopify.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReductionDTO {
+    private Long productId;
+    private int quantity;
+    private Integer remainingStock;
+    private StockReductionStatus status;
+    
+    public enum StockReductionStatus {
+        REDUCED,
+        SOLD_OUT,
+        NOT_FOUND
+    }
+}
@@ -0,0 +1,46 @@
+package com.shopify.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Cold storage for payments in a terminal status (COMPLETED, FAILED, REFUNDED) older than the archive horizon.
+// Rows are moved here by PaymentArchiveService with their original id; only the status can change afterwards
+// (a COMPLETED payment can still be refunded).
+@Entity
+@Table(name = "payments_archive", indexes = {
+    @Index(name = "idx_payments_archive_payment_date", columnList = "paymentDate"),
+    @Index(name = "idx_payments_archive_transaction_id", columnList = "transactionId")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedPayment {
+    @Id
+    private Long id;
+    
+    @Column(nullable = false)
+    private LocalDateTime paymentDate;
+    
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "payment_mode_id", nullable = false)
+    private PaymentMode paymentMode;
+    
+    private String transactionId;
+    
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+    
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Payment.PaymentStatus status;
+    
+    @Column(length = 500)
+    private String remarks;
+    
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -8,13 +8,22 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+// Transaction id uniqueness (uk_payments_transaction_id) is left to the schema: the V1 migration or
+// database/payments_transaction_id_unique.sql on a plain table, payment_transaction_ids once V3__partition_payments
+// (db/migration/partitioning) has partitioned it. Declared here, ddl-auto=update would try to add it to the partitioned table, where a unique
+// index has to include the partition key.
+@Table(name = "payments",
+       indexes = {
+           @Index(name = "idx_payments_payment_date", columnList = "paymentDate"),
+           @Index(name = "idx_payments_status_payment_date", columnList = "status, paymentDate")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Payment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_id_seq")
+    @SequenceGenerator(name = "payments_id_seq", sequenceName = "payments_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -12,7 +12,8 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class PaymentMode {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_modes_id_seq")
+    @SequenceGenerator(name = "payment_modes_id_seq", sequenceName = "payment_modes_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, unique = true)
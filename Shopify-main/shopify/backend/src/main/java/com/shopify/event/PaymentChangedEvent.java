@@ -0,0 +1,16 @@
+package com.shopify.event;
+
+import com.shopify.entity.Payment;
+import com.shopify.entity.Payment.PaymentStatus;
+import lombok.Value;
+
+// Published when a payment is created (previousStatus is null) or its status changes
+@Value
+public class PaymentChangedEvent {
+    Payment payment;
+    PaymentStatus previousStatus;
+    
+    public boolean isCreated() {
+        return previousStatus == null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.shopify.event;
+
+import com.shopify.entity.Product;
+import lombok.Value;
+
+// Published after a product is created, updated or deleted; product is null for deletes
+@Value
+public class ProductChangedEvent {
+    Long productId;
+    Product product;
+    
+    public boolean isDeleted() {
+        return product == null;
+    }
+}
@@ -0,0 +1,10 @@
+package com.shopify.event;
+
+import lombok.Value;
+
+// Published once after a bulk import instead of one ProductChangedEvent per row; listeners that
+// track individual products should resync from the database
+@Value
+public class ProductsImportedEvent {
+    long importedCount;
+}
@@ -0,0 +1,9 @@
+package com.shopify.event;
+
+import lombok.Value;
+
+// Published when payment modes or categories are written; triggers a reload of the in-memory snapshot
+@Value
+public class ReferenceDataChangedEvent {
+    String source;
+}
@@ -0,0 +1,10 @@
+package com.shopify.event;
+
+import lombok.Value;
+
+// Published when stock is decremented outside a full product update (reduce-stock, checkout)
+@Value
+public class StockChangedEvent {
+    Long productId;
+    int remainingStock;
+}
@@ -0,0 +1,35 @@
+package com.shopify.repository;
+
+import com.shopify.entity.ArchivedPayment;
+import com.shopify.entity.Payment.PaymentStatus;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+@Repository
+public interface ArchivedPaymentRepository extends JpaRepository<ArchivedPayment, Long> {
+    
+    Optional<ArchivedPayment> findByTransactionId(String transactionId);
+    
+    boolean existsByTransactionId(String transactionId);
+    
+    List<ArchivedPayment> findByStatus(PaymentStatus status);
+    
+    // Cursor-backed streams for the payments export, which always has a date range; must be consumed inside a transaction
+    @EntityGraph(attributePaths = "paymentMode")
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true") })
+    Stream<ArchivedPayment> streamByPaymentDateBetweenOrderByIdAsc(LocalDateTime startDate, LocalDateTime endDate);
+    
+    @EntityGraph(attributePaths = "paymentMode")
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true") })
+    Stream<ArchivedPayment> streamByStatusAndPaymentDateBetweenOrderByIdAsc(PaymentStatus status, LocalDateTime startDate, LocalDateTime endDate);
+}
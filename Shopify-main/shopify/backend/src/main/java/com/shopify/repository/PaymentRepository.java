@@ -2,26 +2,89 @@ package com.shopify.repository;
 
 import com.shopify.entity.Payment;
 import com.shopify.entity.Payment.PaymentStatus;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, Long> {
+public interface PaymentRepository extends JpaRepository<Payment, Long>, PaymentRepositoryCustom {
     
     List<Payment> findByStatus(PaymentStatus status);
     
     Optional<Payment> findByTransactionId(String transactionId);
     
+    boolean existsByTransactionId(String transactionId);
+    
+    // Transaction ids of live and archived payments, for the Bloom filter; the stream must be consumed inside a transaction
+    @Query(value = "SELECT (SELECT COUNT(transaction_id) FROM payments) + (SELECT COUNT(transaction_id) FROM payments_archive)",
+           nativeQuery = true)
+    long countAllTransactionIds();
+    
+    @Query(value = "SELECT transaction_id FROM payments WHERE transaction_id IS NOT NULL " +
+                   "UNION ALL SELECT transaction_id FROM payments_archive WHERE transaction_id IS NOT NULL", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "5000"))
+    Stream<String> streamAllTransactionIds();
+    
+    // Transaction ids of live payments dated from the given time on, for the filter's poll
+    @Query("SELECT p.transactionId FROM Payment p WHERE p.paymentDate >= :from AND p.transactionId IS NOT NULL")
+    Stream<String> streamTransactionIdsDatedFrom(@Param("from") LocalDateTime from);
+    
+    // Newest payments within a date window, so a partitioned table only reads the recent partitions
+    @EntityGraph(attributePaths = "paymentMode")
+    List<Payment> findByPaymentDateGreaterThanEqualOrderByPaymentDateDesc(LocalDateTime since, Limit limit);
+    
     List<Payment> findByPaymentDateBetween(LocalDateTime startDate, LocalDateTime endDate);
     
-    @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.status = 'COMPLETED'")
+    // Cursor-backed streams for exports: rows are fetched in chunks and must be consumed inside a transaction
+    @EntityGraph(attributePaths = "paymentMode")
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true") })
+    Stream<Payment> streamAllByOrderByIdAsc();
+    
+    @EntityGraph(attributePaths = "paymentMode")
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true") })
+    Stream<Payment> streamByStatusOrderByIdAsc(PaymentStatus status);
+    
+    @EntityGraph(attributePaths = "paymentMode")
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true") })
+    Stream<Payment> streamByPaymentDateBetweenOrderByIdAsc(LocalDateTime startDate, LocalDateTime endDate);
+    
+    @EntityGraph(attributePaths = "paymentMode")
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true") })
+    Stream<Payment> streamByStatusAndPaymentDateBetweenOrderByIdAsc(PaymentStatus status, LocalDateTime startDate, LocalDateTime endDate);
+    
+    // Totals over live and archived payments
+    @Query(value = "SELECT (SELECT COALESCE(SUM(amount), 0) FROM payments WHERE status = 'COMPLETED') " +
+                   "+ (SELECT COALESCE(SUM(amount), 0) FROM payments_archive WHERE status = 'COMPLETED')", nativeQuery = true)
     BigDecimal getTotalCompletedPayments();
     
-    @Query("SELECT COUNT(p) FROM Payment p WHERE p.status = ?1")
-    long countByStatus(PaymentStatus status);
+    @Query(value = "SELECT (SELECT COUNT(*) FROM payments WHERE status = :status) " +
+                   "+ (SELECT COUNT(*) FROM payments_archive WHERE status = :status)", nativeQuery = true)
+    long countByStatus(@Param("status") String status);
+    
+    // Hourly rollup rows over live and archived payments: bucket start, payment mode id, status, count, amount sum
+    @Query(value = "SELECT date_trunc('hour', payment_date), payment_mode_id, status, COUNT(*), SUM(amount) " +
+                   "FROM (SELECT payment_date, payment_mode_id, status, amount FROM payments " +
+                   "UNION ALL SELECT payment_date, payment_mode_id, status, amount FROM payments_archive) p " +
+                   "GROUP BY 1, 2, 3", nativeQuery = true)
+    List<Object[]> findHourlyRollups();
+    
+    // The same payments' rows as findHourlyRollups saw them: payment date, payment mode id, status, amount
+    @Query(value = "SELECT payment_date, payment_mode_id, status, amount FROM payments WHERE id IN (:ids) " +
+                   "UNION ALL SELECT payment_date, payment_mode_id, status, amount FROM payments_archive WHERE id IN (:ids)",
+           nativeQuery = true)
+    List<Object[]> findRollupRowsByIds(@Param("ids") Collection<Long> ids);
 }
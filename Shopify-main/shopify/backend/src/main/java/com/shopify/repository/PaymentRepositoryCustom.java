@@ -0,0 +1,34 @@
+package com.shopify.repository;
+
+import com.shopify.dto.PaymentField;
+import com.shopify.entity.Payment.PaymentStatus;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface PaymentRepositoryCustom {
+    
+    // Moves up to limit payments in a terminal status dated before cutoff into payments_archive, oldest
+    // first, and returns how many were moved. Must run inside a transaction.
+    int archiveTerminalPayments(LocalDateTime cutoff, int limit);
+    
+    // True when payments is a PostgreSQL partitioned table (see the V3__partition_payments migration);
+    // the partition methods below do nothing otherwise
+    boolean isPartitioned();
+    
+    // Creates the monthly partitions from first through last that do not exist yet; returns their names
+    List<String> createMonthlyPartitions(YearMonth first, YearMonth last);
+    
+    // Drops monthly partitions that end on or before the given month and hold no rows; returns their names
+    List<String> dropEmptyPartitionsBefore(YearMonth month);
+    
+    // Live payments in id order (optionally of one status) holding only the requested fields, read with a tuple
+    // query; payment_modes is joined only for PAYMENT_MODE
+    List<Map<String, Object>> findFields(Set<PaymentField> fields, PaymentStatus status);
+    
+    // The same over payments_archive
+    List<Map<String, Object>> findArchivedFields(Set<PaymentField> fields, PaymentStatus status);
+}
@@ -0,0 +1,188 @@
+package com.shopify.repository;
+
+import com.shopify.dto.PaymentField;
+import com.shopify.entity.ArchivedPayment;
+import com.shopify.entity.Payment;
+import com.shopify.entity.Payment.PaymentStatus;
+import com.shopify.entity.PaymentMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class PaymentRepositoryImpl implements PaymentRepositoryCustom {
+    
+    private static final String TERMINAL_STATUSES = "('COMPLETED', 'FAILED', 'REFUNDED')";
+    // payment_date is repeated in every statement so PostgreSQL only visits partitions before the cutoff
+    private static final String LOCK_ARCHIVABLE_SQL =
+            "SELECT id FROM payments WHERE payment_date < ? AND status IN " + TERMINAL_STATUSES +
+            " ORDER BY payment_date LIMIT ? FOR UPDATE";
+    private static final String COPY_TO_ARCHIVE_SQL =
+            "INSERT INTO payments_archive (id, payment_date, payment_mode_id, transaction_id, amount, status, remarks, archived_at) " +
+            "SELECT id, payment_date, payment_mode_id, transaction_id, amount, status, remarks, ? FROM payments " +
+            "WHERE payment_date < ? AND id IN (%s)";
+    private static final String DELETE_ARCHIVED_SQL = "DELETE FROM payments WHERE payment_date < ? AND id IN (%s)";
+    
+    private static final String IS_PARTITIONED_SQL =
+            "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+            "WHERE c.oid = to_regclass('payments'))";
+    private static final String LIST_PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = to_regclass('payments') AND c.relname ~ '^payments_p[0-9]{6}$'";
+    private static final String PARTITION_PREFIX = "payments_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public int archiveTerminalPayments(LocalDateTime cutoff, int limit) {
+        Timestamp before = Timestamp.valueOf(cutoff);
+        List<Long> ids = jdbcTemplate.queryForList(LOCK_ARCHIVABLE_SQL, Long.class, before, limit);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        List<Object> args = new ArrayList<>(ids.size() + 2);
+        args.add(Timestamp.valueOf(LocalDateTime.now()));
+        args.add(before);
+        args.addAll(ids);
+        jdbcTemplate.update(COPY_TO_ARCHIVE_SQL.formatted(placeholders), args.toArray());
+        return jdbcTemplate.update(DELETE_ARCHIVED_SQL.formatted(placeholders), args.subList(1, args.size()).toArray());
+    }
+    
+    @Override
+    public List<Map<String, Object>> findFields(Set<PaymentField> fields, PaymentStatus status) {
+        return findFields(Payment.class, fields, status);
+    }
+    
+    @Override
+    public List<Map<String, Object>> findArchivedFields(Set<PaymentField> fields, PaymentStatus status) {
+        return findFields(ArchivedPayment.class, fields, status);
+    }
+    
+    private List<Map<String, Object>> findFields(Class<?> entityType, Set<PaymentField> fields, PaymentStatus status) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<?> payment = query.from(entityType);
+        
+        List<Selection<?>> selections = new ArrayList<>();
+        for (PaymentField field : fields) {
+            if (field == PaymentField.PAYMENT_MODE) {
+                Join<?, PaymentMode> paymentMode = payment.join("paymentMode");
+                selections.add(paymentMode.get("mode").alias(field.property()));
+            } else {
+                selections.add(payment.get(field.property()).alias(field.property()));
+            }
+        }
+        query.multiselect(selections);
+        if (status != null) {
+            query.where(cb.equal(payment.get("status"), status));
+        }
+        query.orderBy(cb.asc(payment.get("id")));
+        
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (PaymentField field : fields) {
+                row.put(field.property(), tuple.get(field.property()));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+    
+    @Override
+    public boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                return false;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery(IS_PARTITIONED_SQL)) {
+                return result.next() && result.getBoolean(1);
+            }
+        }));
+    }
+    
+    @Override
+    public List<String> createMonthlyPartitions(YearMonth first, YearMonth last) {
+        if (!isPartitioned()) {
+            return List.of();
+        }
+        
+        List<String> existing = jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class);
+        List<String> created = new ArrayList<>();
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            String name = partitionName(month);
+            if (!existing.contains(name)) {
+                // Identifiers and bounds are generated here, never taken from input
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF payments " +
+                        "FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+                created.add(name);
+            }
+        }
+        return created;
+    }
+    
+    // DETACH ... CONCURRENTLY does not block payment reads or writes (PostgreSQL 14+), but cannot run in a
+    // transaction block, so this must be called outside one. A partition that gained rows in the meantime is
+    // attached again instead of dropped.
+    @Override
+    public List<String> dropEmptyPartitionsBefore(YearMonth month) {
+        if (!isPartitioned()) {
+            return List.of();
+        }
+        
+        List<String> dropped = new ArrayList<>();
+        for (String name : jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class)) {
+            YearMonth partitionMonth = YearMonth.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+            if (!partitionMonth.isBefore(month) || !isEmpty(name)) {
+                continue;
+            }
+            
+            jdbcTemplate.execute("ALTER TABLE payments DETACH PARTITION " + name + " CONCURRENTLY");
+            if (isEmpty(name)) {
+                jdbcTemplate.execute("DROP TABLE " + name);
+                dropped.add(name);
+            } else {
+                jdbcTemplate.execute("ALTER TABLE payments ATTACH PARTITION " + name + " FOR VALUES FROM ('" +
+                        partitionMonth.atDay(1) + "') TO ('" + partitionMonth.plusMonths(1).atDay(1) + "')");
+            }
+        }
+        return dropped;
+    }
+    
+    private boolean isEmpty(String table) {
+        return Boolean.FALSE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + table + ")", Boolean.class));
+    }
+    
+    private static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+}
@@ -1,16 +1,79 @@
 package com.shopify.repository;
 
+import com.shopify.dto.ProductStockView;
 import com.shopify.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+    
+    // category is lazy; reads that end up in a ProductDTO fetch it in the same query
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Product> findAll();
+    
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findById(Long id);
+    
+    @EntityGraph(attributePaths = "category")
+    Window<Product> findBy(ScrollPosition position, Sort sort, Limit limit);
+    
+    @EntityGraph(attributePaths = "category")
+    Window<Product> findByCategoryId(Long categoryId, ScrollPosition position, Sort sort, Limit limit);
+    
+    // Cursor-backed stream for the catalog export; must be consumed inside a transaction
+    @EntityGraph(attributePaths = "category")
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true") })
+    Stream<Product> streamAllByOrderByIdAsc();
     
     @Query("SELECT SUM(p.price * p.totalItemsInStock) FROM Product p")
     Double findTotalInventoryValue();
     
     @Query("SELECT SUM(p.totalItemsInStock) FROM Product p")
     Long findTotalItemsInStock();
+    
+    @Query("SELECT p.id AS id, p.name AS name, p.price AS price, p.totalItemsInStock AS totalItemsInStock FROM Product p")
+    List<ProductStockView> findAllStockViews();
+    
+    @Query("SELECT p.id AS id, p.name AS name, p.price AS price, p.totalItemsInStock AS totalItemsInStock " +
+           "FROM Product p WHERE p.id IN :ids")
+    List<ProductStockView> findStockViewsByIds(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT p.totalItemsInStock FROM Product p WHERE p.id = :id")
+    Integer findStockById(@Param("id") Long id);
+    
+    @Query(value = "SELECT total_items_in_stock FROM products WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Integer lockStockById(@Param("id") Long id);
+    
+    // Rows are locked in id order so overlapping checkouts cannot deadlock each other
+    @Query(value = "SELECT id AS \"id\", name AS \"name\", price AS \"price\", " +
+                   "total_items_in_stock AS \"totalItemsInStock\" " +
+                   "FROM products WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<ProductStockView> lockStockByIds(@Param("ids") Collection<Long> ids);
+    
+    // Conditional decrement: only succeeds when enough stock is left, so concurrent callers can never oversell
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.totalItemsInStock = p.totalItemsInStock - :quantity " +
+           "WHERE p.id = :id AND p.totalItemsInStock >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
 }
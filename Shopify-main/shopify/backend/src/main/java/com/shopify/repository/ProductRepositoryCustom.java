@@ -0,0 +1,28 @@
+package com.shopify.repository;
+
+import com.shopify.dto.ProductField;
+import com.shopify.entity.Product;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface ProductRepositoryCustom {
+    
+    // Sends every decrement in one JDBC batch; each entry of the result is the row count for that line
+    int[] decrementStockBatch(List<Long> productIds, List<Integer> quantities);
+    
+    // Inserts new products (ids from products_id_seq) without going through the persistence context:
+    // PostgreSQL COPY into a staging table, or JDBC batches on other databases. Returns the rows inserted.
+    int bulkInsert(List<Product> products);
+    
+    // Only the requested fields, read with a tuple query: other columns are never fetched and categories are
+    // joined only for CATEGORY. Ordered by orderBy (an entity attribute) then id, starting after the
+    // (afterValue, afterId) keyset when afterId is given; limit may be null.
+    List<ProjectedRow> findFields(Set<ProductField> fields, Long categoryId, String orderBy, boolean descending,
+                                  Object afterValue, Long afterId, Integer limit);
+    
+    // id and the orderBy value come with every row, selected or not, so callers can build the next cursor
+    record ProjectedRow(Long id, Object orderValue, Map<String, Object> fields) {
+    }
+}
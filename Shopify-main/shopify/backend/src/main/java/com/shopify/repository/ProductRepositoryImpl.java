@@ -0,0 +1,193 @@
+package com.shopify.repository;
+
+import com.shopify.dto.CategoryDTO;
+import com.shopify.dto.ProductField;
+import com.shopify.entity.Category;
+import com.shopify.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+    
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE products SET total_items_in_stock = total_items_in_stock - ? " +
+            "WHERE id = ? AND total_items_in_stock >= ?";
+    
+    // COPY cannot call nextval, so rows land in a staging table first and get their ids on the way across
+    private static final String CREATE_STAGING_SQL =
+            "CREATE TEMP TABLE product_import (name varchar(255), price double precision, " +
+            "total_items_in_stock integer, image_url varchar(1000), category_id bigint) ON COMMIT DROP";
+    private static final String COPY_STAGING_SQL =
+            "COPY product_import (name, price, total_items_in_stock, image_url, category_id) FROM STDIN WITH (FORMAT csv)";
+    private static final String INSERT_FROM_STAGING_SQL =
+            "INSERT INTO products (id, name, price, total_items_in_stock, image_url, category_id) " +
+            "SELECT nextval('products_id_seq'), name, price, total_items_in_stock, image_url, category_id FROM product_import";
+    private static final String DROP_STAGING_SQL = "DROP TABLE product_import";
+    private static final String INSERT_PRODUCT_SQL =
+            "INSERT INTO products (id, name, price, total_items_in_stock, image_url, category_id) " +
+            "VALUES (nextval('products_id_seq'), ?, ?, ?, ?, ?)";
+    private static final int INSERT_BATCH_SIZE = 1000;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public int[] decrementStockBatch(List<Long> productIds, List<Integer> quantities) {
+        List<Object[]> args = new ArrayList<>(productIds.size());
+        for (int i = 0; i < productIds.size(); i++) {
+            args.add(new Object[] { quantities.get(i), productIds.get(i), quantities.get(i) });
+        }
+        return jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, args);
+    }
+    
+    @Override
+    public int bulkInsert(List<Product> products) {
+        if (products.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) connection ->
+                connection.isWrapperFor(PGConnection.class) ? copyInsert(connection, products) : batchInsert(products));
+    }
+    
+    private int copyInsert(Connection connection, List<Product> products) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING_SQL);
+            connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING_SQL, new StringReader(toCsv(products)));
+            int inserted = statement.executeUpdate(INSERT_FROM_STAGING_SQL);
+            statement.execute(DROP_STAGING_SQL);
+            return inserted;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private int batchInsert(List<Product> products) {
+        int inserted = 0;
+        for (int from = 0; from < products.size(); from += INSERT_BATCH_SIZE) {
+            List<Object[]> args = new ArrayList<>(INSERT_BATCH_SIZE);
+            for (Product product : products.subList(from, Math.min(from + INSERT_BATCH_SIZE, products.size()))) {
+                args.add(new Object[] {
+                    product.getName(),
+                    product.getPrice(),
+                    product.getTotalItemsInStock(),
+                    product.getImageUrl(),
+                    product.getCategory().getId()
+                });
+            }
+            for (int count : jdbcTemplate.batchUpdate(INSERT_PRODUCT_SQL, args)) {
+                inserted += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+            }
+        }
+        return inserted;
+    }
+    
+    @Override
+    public List<ProjectedRow> findFields(Set<ProductField> fields, Long categoryId, String orderBy, boolean descending,
+                                         Object afterValue, Long afterId, Integer limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> product = query.from(Product.class);
+        Path<Long> id = product.get("id");
+        Path<Object> order = product.get(orderBy);
+        
+        // Keyed by alias so a field that is also the id or sort column is selected once
+        Map<String, Selection<?>> selections = new LinkedHashMap<>();
+        selections.put("id", id);
+        selections.put(orderBy, order);
+        for (ProductField field : fields) {
+            if (field == ProductField.CATEGORY) {
+                Join<Product, Category> category = product.join("category");
+                selections.put("categoryId", category.get("id"));
+                selections.put("categoryName", category.get("name"));
+            } else {
+                selections.putIfAbsent(field.property(), product.get(field.property()));
+            }
+        }
+        selections.forEach((alias, selection) -> selection.alias(alias));
+        query.multiselect(new ArrayList<>(selections.values()));
+        
+        List<Predicate> where = new ArrayList<>();
+        if (categoryId != null) {
+            // Compares the foreign key column; no join
+            where.add(cb.equal(product.get("category").get("id"), categoryId));
+        }
+        if (afterId != null) {
+            where.add(orderBy.equals("id")
+                ? after(cb, id, afterId, descending)
+                : cb.or(after(cb, order, afterValue, descending),
+                        cb.and(cb.equal(order, afterValue), after(cb, id, afterId, descending))));
+        }
+        query.where(where.toArray(Predicate[]::new));
+        query.orderBy(orderBy.equals("id")
+            ? List.of(descending ? cb.desc(id) : cb.asc(id))
+            : List.of(descending ? cb.desc(order) : cb.asc(order), descending ? cb.desc(id) : cb.asc(id)));
+        
+        TypedQuery<Tuple> typed = entityManager.createQuery(query);
+        if (limit != null) {
+            typed.setMaxResults(limit);
+        }
+        
+        List<ProjectedRow> rows = new ArrayList<>();
+        for (Tuple tuple : typed.getResultList()) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (ProductField field : fields) {
+                values.put(field.property(), field == ProductField.CATEGORY
+                    ? new CategoryDTO(tuple.get("categoryId", Long.class), tuple.get("categoryName", String.class))
+                    : tuple.get(field.property()));
+            }
+            rows.add(new ProjectedRow(tuple.get("id", Long.class), tuple.get(orderBy), values));
+        }
+        return rows;
+    }
+    
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Predicate after(CriteriaBuilder cb, Expression value, Object bound, boolean descending) {
+        return descending ? cb.lessThan(value, (Comparable) bound) : cb.greaterThan(value, (Comparable) bound);
+    }
+    
+    // CSV as COPY reads it: strings always quoted, NULL as an unquoted empty field
+    private static String toCsv(List<Product> products) {
+        StringBuilder csv = new StringBuilder(products.size() * 96);
+        for (Product product : products) {
+            appendQuoted(csv, product.getName()).append(',')
+                .append(product.getPrice()).append(',')
+                .append(product.getTotalItemsInStock()).append(',');
+            appendQuoted(csv, product.getImageUrl()).append(',')
+                .append(product.getCategory().getId()).append('\n');
+        }
+        return csv.toString();
+    }
+    
+    private static StringBuilder appendQuoted(StringBuilder csv, String value) {
+        return value == null ? csv : csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
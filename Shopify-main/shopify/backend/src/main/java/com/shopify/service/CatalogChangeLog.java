@@ -0,0 +1,134 @@
+package com.shopify.service;
+
+import com.shopify.dto.ProductChangesDTO;
+import com.shopify.dto.ProductDTO;
+import com.shopify.event.ProductChangedEvent;
+import com.shopify.event.ProductsImportedEvent;
+import com.shopify.event.StockChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Catalog versions for delta sync (GET /api/products/changes). Every committed product write takes the next
+// version, and the log keeps the latest change per product, at most capacity of them, so a client at
+// version v gets only what changed after v. The log only sees this instance's writes, so the version token
+// carries a random epoch picked at startup ("<epoch>.<version>"): tokens from another instance or from
+// before a restart, like versions older than the log, get a full snapshot instead.
+@Service
+public class CatalogChangeLog {
+    
+    private final ProductCacheService productCacheService;
+    private final int capacity;
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    
+    // All guarded by this
+    private final TreeMap<Long, Change> byVersion = new TreeMap<>();
+    private final Map<Long, Change> byProduct = new HashMap<>();
+    private long version;
+    // Changes up to this version are no longer in the log
+    private long floor;
+    
+    public CatalogChangeLog(ProductCacheService productCacheService,
+                            @Value("${shopify.catalog.changes.capacity:10000}") int capacity) {
+        this.productCacheService = productCacheService;
+        this.capacity = capacity;
+    }
+    
+    public ProductChangesDTO changesSince(String sinceToken) {
+        Long since = parse(sinceToken);
+        long current;
+        synchronized (this) {
+            current = version;
+            if (since != null && since >= floor && since <= version) {
+                List<ProductDTO> upserted = new ArrayList<>();
+                List<ProductChangesDTO.StockLevel> stock = new ArrayList<>();
+                List<Long> deleted = new ArrayList<>();
+                for (Change change : byVersion.tailMap(since, false).values()) {
+                    if (change.product() != null) {
+                        upserted.add(change.product());
+                    } else if (change.stock() != null) {
+                        stock.add(new ProductChangesDTO.StockLevel(change.productId(), change.stock()));
+                    } else {
+                        deleted.add(change.productId());
+                    }
+                }
+                return new ProductChangesDTO(token(current), false, upserted, stock, deleted);
+            }
+        }
+        // ProductCacheService evicts before the listeners here assign a version, so the cached list already
+        // includes every change up to current
+        return new ProductChangesDTO(token(current), true, productCacheService.getAllProducts().value(), List.of(), List.of());
+    }
+    
+    private String token(long version) {
+        return epoch + "." + version;
+    }
+    
+    // The version of a token issued by this instance, otherwise null
+    private Long parse(String token) {
+        if (token == null) {
+            return null;
+        }
+        int separator = token.indexOf('.');
+        if (separator < 0 || !token.substring(0, separator).equals(epoch)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(token.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        record(new Change(++version, event.getProductId(), event.isDeleted() ? null : ProductDTO.from(event.getProduct()), null));
+    }
+    
+    // Merged into a full entry when the product's last change is still in the log
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStockChanged(StockChangedEvent event) {
+        Change previous = byProduct.get(event.getProductId());
+        ProductDTO product = previous != null && previous.product() != null
+            ? previous.product().withStock(event.getRemainingStock())
+            : null;
+        record(new Change(++version, event.getProductId(), product, product == null ? event.getRemainingStock() : null));
+    }
+    
+    // Imported rows are not logged one by one: every client resyncs from a snapshot
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductsImported(ProductsImportedEvent event) {
+        floor = ++version;
+        byVersion.clear();
+        byProduct.clear();
+    }
+    
+    private void record(Change change) {
+        Change previous = byProduct.put(change.productId(), change);
+        if (previous != null) {
+            byVersion.remove(previous.version());
+        }
+        byVersion.put(change.version(), change);
+        while (byVersion.size() > capacity) {
+            Change evicted = byVersion.pollFirstEntry().getValue();
+            byProduct.remove(evicted.productId());
+            floor = evicted.version();
+        }
+    }
+    
+    // product set: upsert; only stock set: stock change; neither: delete
+    private record Change(long version, Long productId, ProductDTO product, Integer stock) {
+    }
+}
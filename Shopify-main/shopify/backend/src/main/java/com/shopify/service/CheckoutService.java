@@ -0,0 +1,94 @@
+package com.shopify.service;
+
+import com.shopify.dto.CheckoutItemDTO;
+import com.shopify.dto.CheckoutLineDTO;
+import com.shopify.dto.CheckoutRequestDTO;
+import com.shopify.dto.CheckoutResponseDTO;
+import com.shopify.dto.PaymentRequestDTO;
+import com.shopify.dto.PaymentResponseDTO;
+import com.shopify.dto.ProductStockView;
+import com.shopify.event.StockChangedEvent;
+import com.shopify.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class CheckoutService {
+    
+    private final ProductRepository productRepository;
+    private final PaymentService paymentService;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public CheckoutResponseDTO checkout(CheckoutRequestDTO requestDTO) {
+        if (requestDTO.getItems() == null || requestDTO.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Cart is empty");
+        }
+        
+        // Merge duplicate lines; the sorted map keeps row locks and updates in id order
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (CheckoutItemDTO item : requestDTO.getItems()) {
+            if (item.getProductId() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Invalid quantity for product id: " + item.getProductId());
+            }
+            try {
+                quantities.merge(item.getProductId(), item.getQuantity(), Math::addExact);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Invalid quantity for product id: " + item.getProductId());
+            }
+        }
+        
+        List<Long> productIds = new ArrayList<>(quantities.keySet());
+        List<Integer> productQuantities = new ArrayList<>(quantities.values());
+        Map<Long, ProductStockView> products = productRepository.lockStockByIds(productIds).stream()
+            .collect(Collectors.toMap(ProductStockView::getId, Function.identity()));
+        
+        BigDecimal amount = BigDecimal.ZERO;
+        List<CheckoutLineDTO> lines = new ArrayList<>(productIds.size());
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            ProductStockView product = products.get(line.getKey());
+            if (product == null) {
+                throw new IllegalArgumentException("Product not found with id: " + line.getKey());
+            }
+            if (product.getTotalItemsInStock() < line.getValue()) {
+                throw new IllegalStateException("Insufficient stock for product: " + product.getName());
+            }
+            amount = amount.add(BigDecimal.valueOf(product.getPrice()).multiply(BigDecimal.valueOf(line.getValue())));
+            lines.add(new CheckoutLineDTO(product.getId(), product.getName(), line.getValue(),
+                product.getPrice(), product.getTotalItemsInStock() - line.getValue()));
+        }
+        
+        int[] updated = productRepository.decrementStockBatch(productIds, productQuantities);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] != 1) {
+                throw new IllegalStateException("Insufficient stock for product id: " + productIds.get(i));
+            }
+        }
+        
+        // Rows are still locked, so the remaining stock is exact; listeners only see it after commit
+        lines.forEach(line -> eventPublisher.publishEvent(new StockChangedEvent(line.getProductId(), line.getRemainingStock())));
+        
+        // Joins this transaction, so a rejected payment rolls the stock back as well
+        PaymentResponseDTO payment = paymentService.createPayment(new PaymentRequestDTO(
+            requestDTO.getPaymentModeId(),
+            requestDTO.getTransactionId(),
+            amount.setScale(2, RoundingMode.HALF_UP),
+            requestDTO.getRemarks()
+        ));
+        
+        return new CheckoutResponseDTO(payment, lines);
+    }
+}
@@ -0,0 +1,215 @@
+package com.shopify.service;
+
+import com.shopify.dto.ProductStockView;
+import com.shopify.entity.Payment;
+import com.shopify.event.PaymentChangedEvent;
+import com.shopify.event.ProductChangedEvent;
+import com.shopify.event.ProductsImportedEvent;
+import com.shopify.event.StockChangedEvent;
+import com.shopify.repository.PaymentRepository;
+import com.shopify.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Keeps dashboard totals up to date from committed product and payment writes, so reads are O(1).
+// Per-product values are absolute rather than deltas, which lets the periodic reconcile simply
+// replace them with what the database holds.
+@Service
+@RequiredArgsConstructor
+public class DashboardStatsStore {
+    
+    private static final int RECENT_PAYMENTS = 5;
+    private static final Duration RECENT_PAYMENTS_WINDOW = Duration.ofDays(7);
+    private static final Comparator<Payment> NEWEST_FIRST =
+        Comparator.comparing(Payment::getPaymentDate, Comparator.nullsLast(Comparator.reverseOrder()));
+    
+    private final ProductRepository productRepository;
+    private final PaymentRepository paymentRepository;
+    
+    // Everything below is guarded by this
+    private final Map<Long, ProductTotals> products = new HashMap<>();
+    private final List<Payment> recentPayments = new ArrayList<>();
+    private final Set<Long> touchedDuringReconcile = new HashSet<>();
+    private boolean reconciling;
+    private double totalValue;
+    private long totalItemsInStock;
+    // Startup, imports and the schedule can all ask for a reconcile; they share the touched set above, so they
+    // run one at a time. A reconcile that waited still runs, since the one before it may predate its import.
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+    
+    private volatile Totals snapshot = new Totals(0, 0.0, 0L, List.of());
+    
+    public Totals getSnapshot() {
+        return snapshot;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            removeProduct(event.getProductId());
+        } else {
+            putProduct(event.getProductId(), event.getProduct().getPrice(), event.getProduct().getTotalItemsInStock());
+        }
+        touch(event.getProductId());
+        publishSnapshot();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStockChanged(StockChangedEvent event) {
+        ProductTotals current = products.get(event.getProductId());
+        if (current != null) {
+            putProduct(event.getProductId(), current.price, event.getRemainingStock());
+            touch(event.getProductId());
+            publishSnapshot();
+        }
+    }
+    
+    // Bulk imports don't carry per-product values; pick them up from the database instead
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        reconcile();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPaymentChanged(PaymentChangedEvent event) {
+        mergeRecentPayments(List.of(event.getPayment()));
+        publishSnapshot();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reconcile();
+    }
+    
+    // Corrects anything the event stream missed (writes from other instances, floating-point drift)
+    @Scheduled(fixedDelayString = "${shopify.dashboard.reconcile-interval-ms:60000}",
+               initialDelayString = "${shopify.dashboard.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        reconcileLock.lock();
+        try {
+            reconcileExclusively();
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+    
+    private void reconcileExclusively() {
+        synchronized (this) {
+            touchedDuringReconcile.clear();
+            reconciling = true;
+        }
+        
+        try {
+            List<ProductStockView> rows = productRepository.findAllStockViews();
+            // The date bound lets a partitioned payments table read only its newest partitions; the unbounded
+            // query is a fallback for quiet periods
+            List<Payment> freshRecent = paymentRepository.findByPaymentDateGreaterThanEqualOrderByPaymentDateDesc(
+                LocalDateTime.now().minus(RECENT_PAYMENTS_WINDOW), Limit.of(RECENT_PAYMENTS));
+            if (freshRecent.size() < RECENT_PAYMENTS) {
+                freshRecent = paymentRepository.findAll(
+                    PageRequest.of(0, RECENT_PAYMENTS, Sort.by(Sort.Direction.DESC, "paymentDate"))
+                ).getContent();
+            }
+            
+            synchronized (this) {
+                // Products written while the queries ran keep their event-driven values
+                Map<Long, ProductTotals> fresh = new HashMap<>();
+                for (ProductStockView row : rows) {
+                    if (!touchedDuringReconcile.contains(row.getId())) {
+                        fresh.put(row.getId(), new ProductTotals(row.getPrice(), row.getTotalItemsInStock()));
+                    }
+                }
+                for (Long id : touchedDuringReconcile) {
+                    ProductTotals current = products.get(id);
+                    if (current != null) {
+                        fresh.put(id, current);
+                    }
+                }
+                
+                products.clear();
+                products.putAll(fresh);
+                totalValue = 0;
+                totalItemsInStock = 0;
+                for (ProductTotals totals : products.values()) {
+                    totalValue += totals.value();
+                    totalItemsInStock += totals.stock;
+                }
+                
+                mergeRecentPayments(freshRecent);
+                publishSnapshot();
+            }
+        } finally {
+            synchronized (this) {
+                reconciling = false;
+                touchedDuringReconcile.clear();
+            }
+        }
+    }
+    
+    private void putProduct(Long id, double price, int stock) {
+        ProductTotals next = new ProductTotals(price, stock);
+        ProductTotals previous = products.put(id, next);
+        if (previous != null) {
+            totalValue -= previous.value();
+            totalItemsInStock -= previous.stock;
+        }
+        totalValue += next.value();
+        totalItemsInStock += next.stock;
+    }
+    
+    private void removeProduct(Long id) {
+        ProductTotals previous = products.remove(id);
+        if (previous != null) {
+            totalValue -= previous.value();
+            totalItemsInStock -= previous.stock;
+        }
+    }
+    
+    private void touch(Long id) {
+        if (reconciling) {
+            touchedDuringReconcile.add(id);
+        }
+    }
+    
+    private void mergeRecentPayments(List<Payment> payments) {
+        for (Payment payment : payments) {
+            recentPayments.removeIf(p -> p.getId().equals(payment.getId()));
+            recentPayments.add(payment);
+        }
+        recentPayments.sort(NEWEST_FIRST);
+        while (recentPayments.size() > RECENT_PAYMENTS) {
+            recentPayments.remove(recentPayments.size() - 1);
+        }
+    }
+    
+    private void publishSnapshot() {
+        snapshot = new Totals(products.size(), totalValue, totalItemsInStock, List.copyOf(recentPayments));
+    }
+    
+    public record Totals(long totalProducts, double totalValue, long totalItemsInStock, List<Payment> recentPayments) {
+    }
+    
+    private record ProductTotals(double price, int stock) {
+        double value() {
+            return price * stock;
+        }
+    }
+}
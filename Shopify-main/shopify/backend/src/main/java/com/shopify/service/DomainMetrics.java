@@ -0,0 +1,48 @@
+package com.shopify.service;
+
+import com.shopify.entity.Payment;
+import com.shopify.event.PaymentChangedEvent;
+import com.shopify.event.StockChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Business counters, fed from committed domain events. Rejected stock reductions show up as 409
+// responses on http.server.requests, so only actual sell-outs are counted here.
+@Component
+@RequiredArgsConstructor
+public class DomainMetrics {
+    
+    private final MeterRegistry meterRegistry;
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentChanged(PaymentChangedEvent event) {
+        Payment payment = event.getPayment();
+        if (event.isCreated()) {
+            // Not "payments.created": the Prometheus exporter drops a _created suffix
+            Counter.builder("shopify.payments.recorded")
+                .description("Payments created, by payment mode")
+                .tag("mode", payment.getPaymentMode() != null ? payment.getPaymentMode().getMode() : "unknown")
+                .register(meterRegistry)
+                .increment();
+        } else if (event.getPreviousStatus() != payment.getStatus()) {
+            Counter.builder("shopify.payments.status.changes")
+                .description("Payment status transitions, by new status")
+                .tag("status", payment.getStatus().name())
+                .register(meterRegistry)
+                .increment();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        if (event.getRemainingStock() == 0) {
+            Counter.builder("shopify.stock.sold_out")
+                .description("Products whose stock reached zero through reduce-stock or checkout")
+                .register(meterRegistry)
+                .increment();
+        }
+    }
+}
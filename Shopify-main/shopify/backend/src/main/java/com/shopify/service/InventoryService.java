@@ -0,0 +1,157 @@
+package com.shopify.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shopify.dto.StockReductionDTO;
+import com.shopify.dto.StockReductionDTO.StockReductionStatus;
+import com.shopify.event.StockChangedEvent;
+import com.shopify.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+@RequiredArgsConstructor
+public class InventoryService {
+    
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    // One lane per product. Whoever holds a lane's lock applies every request queued behind it
+    // with a single UPDATE, so a hot product sees one write per batch instead of a lock convoy.
+    // Ids come from clients, so lanes are bounded and expire when idle; a lane evicted while in use
+    // only costs batching, since every requester still drains its own lane.
+    private final Cache<Long, StockLane> lanes = Caffeine.newBuilder()
+        .maximumSize(10_000)
+        .expireAfterAccess(Duration.ofMinutes(5))
+        .build();
+    
+    public StockReductionDTO reduceStock(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
+        }
+        
+        StockLane lane = lanes.get(productId, id -> new StockLane());
+        PendingReduction request = new PendingReduction(quantity);
+        lane.queue.add(request);
+        
+        lane.lock.lock();
+        try {
+            if (!request.isDone()) {
+                applyBatch(productId, lane.drain());
+            }
+        } finally {
+            lane.lock.unlock();
+        }
+        
+        if (request.failure != null) {
+            throw request.failure;
+        }
+        if (request.status == StockReductionStatus.NOT_FOUND) {
+            lanes.asMap().remove(productId, lane);
+        }
+        return new StockReductionDTO(productId, quantity, request.remainingStock, request.status);
+    }
+    
+    private void applyBatch(Long productId, List<PendingReduction> batch) {
+        // Stock left after the batch, or null when nothing was deducted
+        Integer remainingStock;
+        try {
+            remainingStock = transactionTemplate.execute(tx -> {
+                long total = batch.stream().mapToLong(r -> r.quantity).sum();
+                
+                // Fast path: the whole batch fits, one conditional update covers everyone. A total beyond int
+                // range can never fit, and would wrap or overflow the column; it takes the per-request path.
+                if (total <= Integer.MAX_VALUE && productRepository.decrementStock(productId, (int) total) == 1) {
+                    int finalStock = productRepository.findStockById(productId);
+                    int remaining = finalStock + (int) total;
+                    for (PendingReduction r : batch) {
+                        remaining -= r.quantity;
+                        r.complete(StockReductionStatus.REDUCED, remaining);
+                    }
+                    return finalStock;
+                }
+                
+                // Not enough for the whole batch: lock the row and serve requests in arrival order
+                Integer stock = productRepository.lockStockById(productId);
+                if (stock == null) {
+                    batch.forEach(r -> r.complete(StockReductionStatus.NOT_FOUND, null));
+                    return null;
+                }
+                
+                int granted = 0;
+                for (PendingReduction r : batch) {
+                    if (r.quantity <= stock - granted) {
+                        granted += r.quantity;
+                        r.complete(StockReductionStatus.REDUCED, stock - granted);
+                    } else {
+                        r.complete(StockReductionStatus.SOLD_OUT, stock - granted);
+                    }
+                }
+                if (granted == 0) {
+                    return null;
+                }
+                productRepository.decrementStock(productId, granted);
+                return stock - granted;
+            });
+        } catch (RuntimeException e) {
+            batch.forEach(r -> r.fail(e));
+            return;
+        }
+        
+        // One event per batch, published after commit
+        if (remainingStock != null) {
+            eventPublisher.publishEvent(new StockChangedEvent(productId, remainingStock));
+        }
+    }
+    
+    private static class StockLane {
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private final Queue<PendingReduction> queue = new ConcurrentLinkedQueue<>();
+        
+        private List<PendingReduction> drain() {
+            List<PendingReduction> batch = new ArrayList<>();
+            PendingReduction next;
+            while ((next = queue.poll()) != null) {
+                batch.add(next);
+            }
+            return batch;
+        }
+    }
+    
+    // Fields are written by the batch owner and read by the requester after it takes the lane lock,
+    // so the lock hand-off is what publishes them.
+    private static class PendingReduction {
+        private final int quantity;
+        private StockReductionStatus status;
+        private Integer remainingStock;
+        private RuntimeException failure;
+        
+        private PendingReduction(int quantity) {
+            this.quantity = quantity;
+        }
+        
+        private boolean isDone() {
+            return status != null || failure != null;
+        }
+        
+        private void complete(StockReductionStatus status, Integer remainingStock) {
+            this.status = status;
+            this.remainingStock = remainingStock;
+        }
+        
+        private void fail(RuntimeException failure) {
+            this.status = null;
+            this.failure = failure;
+        }
+    }
+}
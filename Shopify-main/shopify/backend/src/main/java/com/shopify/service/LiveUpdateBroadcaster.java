@@ -0,0 +1,252 @@
+package com.shopify.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopify.dto.LiveUpdateDTO;
+import com.shopify.dto.ProductDTO;
+import com.shopify.event.PaymentChangedEvent;
+import com.shopify.event.ProductChangedEvent;
+import com.shopify.event.ProductsImportedEvent;
+import com.shopify.event.StockChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Pushes committed product, stock and payment changes to /api/events subscribers. Publishing never blocks
+// on a client: each subscriber has a bounded map of pending events keyed by entity, so repeated changes to
+// one product or payment coalesce into the latest, and a subscriber that falls queue-capacity events behind
+// loses its backlog and gets a single "resync" event instead. Sending runs on a pool of send-threads of its
+// own, at most one drain per subscriber at a time, so clients that stop reading can only hold up each other.
+// A send that takes longer than send-timeout ends that subscription.
+@Service
+public class LiveUpdateBroadcaster {
+    
+    public enum Topic { PRODUCTS, PAYMENTS }
+    
+    private static final LiveUpdateDTO RESYNC = new LiveUpdateDTO("resync", "{}");
+    
+    private final PaymentService paymentService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService sendExecutor;
+    private final int queueCapacity;
+    private final int maxSubscribers;
+    private final Duration timeout;
+    private final long sendTimeoutNanos;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Counter coalesced;
+    private final Counter dropped;
+    
+    public LiveUpdateBroadcaster(PaymentService paymentService,
+                                 ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${shopify.live-updates.queue-capacity:256}") int queueCapacity,
+                                 @Value("${shopify.live-updates.max-subscribers:1000}") int maxSubscribers,
+                                 @Value("${shopify.live-updates.timeout:30m}") Duration timeout,
+                                 @Value("${shopify.live-updates.send-threads:8}") int sendThreads,
+                                 @Value("${shopify.live-updates.send-timeout:10s}") Duration sendTimeout) {
+        this.paymentService = paymentService;
+        this.objectMapper = objectMapper;
+        this.queueCapacity = queueCapacity;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        // Tasks queue up to one per subscriber, so the queue is bounded by max-subscribers
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("live-updates-");
+        threadFactory.setDaemon(true);
+        this.sendExecutor = Executors.newFixedThreadPool(sendThreads, threadFactory);
+        this.coalesced = Counter.builder("shopify.live_updates.coalesced")
+            .description("Live update events replaced by a newer event for the same entity before being sent")
+            .register(meterRegistry);
+        this.dropped = Counter.builder("shopify.live_updates.dropped")
+            .description("Live update events dropped for subscribers that fell too far behind")
+            .register(meterRegistry);
+        Gauge.builder("shopify.live_updates.subscribers", subscribers, Set::size)
+            .description("Open /api/events connections")
+            .register(meterRegistry);
+    }
+    
+    public SseEmitter subscribe(Set<Topic> topics) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many live update subscribers");
+        }
+        
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, topics);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        // Sends the response headers right away, so the client sees the stream as open
+        subscriber.offer("ready", new LiveUpdateDTO("ready", "{}"));
+        return emitter;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        sendExecutor.shutdownNow();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentChanged(PaymentChangedEvent event) {
+        Long id = event.getPayment().getId();
+        broadcast(Topic.PAYMENTS, "payment:" + id, "payment", paymentService.convertToDTO(event.getPayment()));
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            broadcast(Topic.PRODUCTS, "product:" + event.getProductId(), "product-deleted", Map.of("id", event.getProductId()));
+        } else {
+            broadcast(Topic.PRODUCTS, "product:" + event.getProductId(), "product", ProductDTO.from(event.getProduct()));
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        broadcast(Topic.PRODUCTS, "stock:" + event.getProductId(), "stock",
+            Map.of("id", event.getProductId(), "totalItemsInStock", event.getRemainingStock()));
+    }
+    
+    // Individual rows are not sent for a bulk import; clients reload the catalog
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        broadcast(Topic.PRODUCTS, "catalog", "catalog", Map.of("imported", event.getImportedCount()));
+    }
+    
+    // Keeps idle connections open through proxies and notices clients that went away. A subscriber stuck in a
+    // send past send-timeout stops receiving events here; its drain completes the emitter once the write
+    // returns or the container's write timeout fails it.
+    @Scheduled(fixedDelayString = "${shopify.live-updates.heartbeat-interval-ms:20000}")
+    public void heartbeat() {
+        LiveUpdateDTO ping = new LiveUpdateDTO(null, null);
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long sendStarted = subscriber.sendStarted;
+            if (sendStarted != 0 && now - sendStarted > sendTimeoutNanos) {
+                subscribers.remove(subscriber);
+            } else {
+                subscriber.offer("ping", ping);
+            }
+        }
+    }
+    
+    private void broadcast(Topic topic, String key, String name, Object payload) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        
+        LiveUpdateDTO update;
+        try {
+            update = new LiveUpdateDTO(name, objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize live update " + name, e);
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.topics.contains(topic)) {
+                subscriber.offer(key, update);
+            }
+        }
+    }
+    
+    private final class Subscriber {
+        
+        private final SseEmitter emitter;
+        private final Set<Topic> topics;
+        // Guarded by this
+        private final LinkedHashMap<String, LiveUpdateDTO> pending = new LinkedHashMap<>();
+        private boolean overflowed;
+        private boolean draining;
+        // System.nanoTime() when the running send started, 0 between sends
+        private volatile long sendStarted;
+        
+        Subscriber(SseEmitter emitter, Set<Topic> topics) {
+            this.emitter = emitter;
+            this.topics = topics;
+        }
+        
+        void offer(String key, LiveUpdateDTO update) {
+            synchronized (this) {
+                if (overflowed) {
+                    dropped.increment();
+                    return;
+                }
+                // Re-inserted at the end: the entity's latest state goes out after anything queued before it
+                if (pending.remove(key) != null) {
+                    coalesced.increment();
+                }
+                if (pending.size() >= queueCapacity) {
+                    dropped.increment(pending.size() + 1);
+                    pending.clear();
+                    overflowed = true;
+                } else {
+                    pending.put(key, update);
+                }
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            sendExecutor.execute(this::drain);
+        }
+        
+        private void drain() {
+            while (true) {
+                List<LiveUpdateDTO> batch;
+                synchronized (this) {
+                    if (pending.isEmpty() && !overflowed) {
+                        draining = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(pending.size() + 1);
+                    if (overflowed) {
+                        batch.add(RESYNC);
+                        overflowed = false;
+                    }
+                    batch.addAll(pending.values());
+                    pending.clear();
+                }
+                
+                try {
+                    for (LiveUpdateDTO update : batch) {
+                        long started = System.nanoTime();
+                        sendStarted = started;
+                        emitter.send(update.getName() == null
+                            ? SseEmitter.event().comment("ping")
+                            : SseEmitter.event().name(update.getName()).data(update.getData(), MediaType.APPLICATION_JSON));
+                        sendStarted = 0;
+                        if (System.nanoTime() - started > sendTimeoutNanos) {
+                            // The client reads too slowly to keep up; EventSource reconnects and reloads
+                            subscribers.remove(this);
+                            emitter.complete();
+                            return;
+                        }
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away; the container completes the emitter. draining stays set, so nothing
+                    // is scheduled for this subscriber again.
+                    subscribers.remove(this);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.shopify.service;
+
+import com.shopify.dto.PaymentStatsBreakdownDTO;
+import com.shopify.dto.PaymentStatsPointDTO;
+import com.shopify.entity.Payment;
+import com.shopify.entity.Payment.PaymentStatus;
+import com.shopify.entity.PaymentMode;
+import com.shopify.event.PaymentChangedEvent;
+import com.shopify.repository.PaymentRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Pre-aggregated payment rollups: one bucket per hour, each holding a count and an amount (in cents) for every
+// payment mode x status cell in flat primitive arrays. Day series are summed from hours at query time.
+@Service
+public class PaymentAnalyticsService {
+    
+    public enum Granularity {
+        HOUR(1),
+        DAY(24);
+        
+        private final int hours;
+        
+        Granularity(int hours) {
+            this.hours = hours;
+        }
+    }
+    
+    private static final int STATUSES = PaymentStatus.values().length;
+    private static final int MAX_POINTS = 10_000;
+    
+    private final PaymentRepository paymentRepository;
+    private final ReferenceDataService referenceDataService;
+    private final TransactionTemplate snapshotTransaction;
+    
+    // Everything below is guarded by this
+    private Rollup rollup = new Rollup();
+    private boolean rebuilding;
+    // Latest state of every payment created or changed since the running rebuild started
+    private final Map<Long, Payment> touchedDuringRebuild = new LinkedHashMap<>();
+    
+    public PaymentAnalyticsService(PaymentRepository paymentRepository,
+                                   ReferenceDataService referenceDataService,
+                                   PlatformTransactionManager transactionManager) {
+        this.paymentRepository = paymentRepository;
+        this.referenceDataService = referenceDataService;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+    
+    // Payments written while the rollup query runs may or may not be in its snapshot, whatever the event type.
+    // Their snapshot rows are read back in the same snapshot and swapped for their latest known state, with
+    // the monitor held until the new rollup is in place so no event falls between the two.
+    // Also rebuilt on an interval, which picks up payments written by other instances.
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${shopify.payments.analytics.rebuild-interval-ms:600000}",
+               initialDelayString = "${shopify.payments.analytics.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        synchronized (this) {
+            rebuilding = true;
+            touchedDuringRebuild.clear();
+        }
+        
+        try {
+            snapshotTransaction.executeWithoutResult(tx -> {
+                Rollup fresh = new Rollup();
+                for (Object[] row : paymentRepository.findHourlyRollups()) {
+                    fresh.add(hourOf(toLocalDateTime(row[0])), ((Number) row[1]).longValue(),
+                        PaymentStatus.valueOf((String) row[2]), ((Number) row[3]).longValue(), toCents((BigDecimal) row[4]));
+                }
+                
+                synchronized (this) {
+                    if (!touchedDuringRebuild.isEmpty()) {
+                        for (Object[] row : paymentRepository.findRollupRowsByIds(touchedDuringRebuild.keySet())) {
+                            fresh.add(hourOf(toLocalDateTime(row[0])), ((Number) row[1]).longValue(),
+                                PaymentStatus.valueOf((String) row[2]), -1, -toCents((BigDecimal) row[3]));
+                        }
+                        touchedDuringRebuild.values().forEach(fresh::add);
+                    }
+                    rollup = fresh;
+                    rebuilding = false;
+                    touchedDuringRebuild.clear();
+                }
+            });
+        } finally {
+            synchronized (this) {
+                rebuilding = false;
+                touchedDuringRebuild.clear();
+            }
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPaymentChanged(PaymentChangedEvent event) {
+        if (rebuilding) {
+            touchedDuringRebuild.put(event.getPayment().getId(), event.getPayment());
+        }
+        rollup.apply(event);
+    }
+    
+    public synchronized List<PaymentStatsPointDTO> getTimeSeries(LocalDateTime from, LocalDateTime to, Granularity granularity,
+                                                               PaymentStatus status, Long paymentModeId) {
+        long firstHour = alignDown(hourOf(from), granularity);
+        long endHour = hourAfter(to);
+        if (endHour <= firstHour) {
+            throw new IllegalArgumentException("'to' must be after 'from'");
+        }
+        long points = (endHour - firstHour + granularity.hours - 1) / granularity.hours;
+        if (points > MAX_POINTS) {
+            throw new IllegalArgumentException("Range too large: at most " + MAX_POINTS + " buckets per request");
+        }
+        
+        long[] counts = new long[(int) points];
+        long[] cents = new long[(int) points];
+        Integer slot = paymentModeId == null ? null : rollup.modeSlots.get(paymentModeId);
+        if (paymentModeId == null || slot != null) {
+            for (Map.Entry<Long, HourBucket> entry : rollup.buckets.subMap(firstHour, true, endHour, false).entrySet()) {
+                int point = (int) ((entry.getKey() - firstHour) / granularity.hours);
+                HourBucket bucket = entry.getValue();
+                for (int s = 0; s < rollup.slotModeIds.size(); s++) {
+                    if (slot != null && s != slot) {
+                        continue;
+                    }
+                    for (PaymentStatus st : PaymentStatus.values()) {
+                        if (status == null || st == status) {
+                            counts[point] += bucket.count(s, st);
+                            cents[point] += bucket.cents(s, st);
+                        }
+                    }
+                }
+            }
+        }
+        
+        List<PaymentStatsPointDTO> series = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            long bucketHour = firstHour + (long) i * granularity.hours;
+            series.add(new PaymentStatsPointDTO(LocalDateTime.ofEpochSecond(bucketHour * 3600, 0, ZoneOffset.UTC),
+                counts[i], BigDecimal.valueOf(cents[i], 2)));
+        }
+        return series;
+    }
+    
+    public synchronized List<PaymentStatsBreakdownDTO> getBreakdown(LocalDateTime from, LocalDateTime to) {
+        long[] counts = new long[rollup.slotModeIds.size() * STATUSES];
+        long[] cents = new long[counts.length];
+        for (HourBucket bucket : rollup.buckets.subMap(hourOf(from), true, hourAfter(to), false).values()) {
+            bucket.addTo(counts, cents);
+        }
+        
+        List<PaymentStatsBreakdownDTO> breakdown = new ArrayList<>();
+        for (int s = 0; s < rollup.slotModeIds.size(); s++) {
+            Long modeId = rollup.slotModeIds.get(s);
+            String modeName = referenceDataService.getPaymentMode(modeId).map(PaymentMode::getMode).orElse(null);
+            for (PaymentStatus st : PaymentStatus.values()) {
+                int cell = s * STATUSES + st.ordinal();
+                if (counts[cell] != 0) {
+                    breakdown.add(new PaymentStatsBreakdownDTO(modeId, modeName, st, counts[cell], BigDecimal.valueOf(cents[cell], 2)));
+                }
+            }
+        }
+        return breakdown;
+    }
+    
+    private static long alignDown(long hour, Granularity granularity) {
+        return Math.floorDiv(hour, granularity.hours) * granularity.hours;
+    }
+    
+    private static long hourOf(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 3600);
+    }
+    
+    // Exclusive end of a range: a partial hour still counts, so 10:15 includes the 10:00 bucket
+    private static long hourAfter(LocalDateTime dateTime) {
+        return -Math.floorDiv(-dateTime.toEpochSecond(ZoneOffset.UTC), 3600);
+    }
+    
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+    
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+    
+    private static final class Rollup {
+        private final NavigableMap<Long, HourBucket> buckets = new TreeMap<>();
+        private final Map<Long, Integer> modeSlots = new HashMap<>();
+        private final List<Long> slotModeIds = new ArrayList<>();
+        
+        void apply(PaymentChangedEvent event) {
+            Payment payment = event.getPayment();
+            long hour = hourOf(payment.getPaymentDate());
+            long cents = toCents(payment.getAmount());
+            if (!event.isCreated()) {
+                add(hour, payment.getPaymentMode().getId(), event.getPreviousStatus(), -1, -cents);
+            }
+            add(hour, payment.getPaymentMode().getId(), payment.getStatus(), 1, cents);
+        }
+        
+        void add(Payment payment) {
+            add(hourOf(payment.getPaymentDate()), payment.getPaymentMode().getId(), payment.getStatus(), 1, toCents(payment.getAmount()));
+        }
+        
+        void add(long hour, long paymentModeId, PaymentStatus status, long count, long amountCents) {
+            int slot = modeSlots.computeIfAbsent(paymentModeId, id -> {
+                slotModeIds.add(id);
+                return slotModeIds.size() - 1;
+            });
+            buckets.computeIfAbsent(hour, h -> new HourBucket()).add(slot, status, count, amountCents);
+        }
+    }
+    
+    // Cells are laid out as slot * STATUSES + status ordinal; arrays grow when a new payment mode shows up
+    private static final class HourBucket {
+        private long[] counts = new long[0];
+        private long[] cents = new long[0];
+        
+        void add(int slot, PaymentStatus status, long count, long amountCents) {
+            int cell = slot * STATUSES + status.ordinal();
+            if (cell >= counts.length) {
+                int size = (slot + 1) * STATUSES;
+                counts = Arrays.copyOf(counts, size);
+                cents = Arrays.copyOf(cents, size);
+            }
+            counts[cell] += count;
+            cents[cell] += amountCents;
+        }
+        
+        long count(int slot, PaymentStatus status) {
+            int cell = slot * STATUSES + status.ordinal();
+            return cell < counts.length ? counts[cell] : 0;
+        }
+        
+        long cents(int slot, PaymentStatus status) {
+            int cell = slot * STATUSES + status.ordinal();
+            return cell < cents.length ? cents[cell] : 0;
+        }
+        
+        void addTo(long[] totalCounts, long[] totalCents) {
+            for (int i = 0; i < counts.length; i++) {
+                totalCounts[i] += counts[i];
+                totalCents[i] += cents[i];
+            }
+        }
+    }
+}
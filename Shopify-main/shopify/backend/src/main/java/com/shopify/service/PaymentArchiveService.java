@@ -0,0 +1,72 @@
+package com.shopify.service;
+
+import com.shopify.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+// Keeps the payments table limited to the recent window: creates monthly partitions ahead of time, moves
+// payments in a terminal status past the archive horizon to payments_archive in small transactions, and
+// drops partitions that have been emptied. Partition work only happens once payments is partitioned;
+// archiving works on any schema.
+@Service
+public class PaymentArchiveService {
+    
+    private final PaymentRepository paymentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archived;
+    private final Duration archiveAfter;
+    private final int batchSize;
+    private final int monthsAhead;
+    
+    public PaymentArchiveService(PaymentRepository paymentRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${shopify.payments.archive.after:180d}") Duration archiveAfter,
+                                 @Value("${shopify.payments.archive.batch-size:5000}") int batchSize,
+                                 @Value("${shopify.payments.partitions.months-ahead:3}") int monthsAhead) {
+        this.paymentRepository = paymentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.archived = Counter.builder("shopify.payments.archived")
+            .description("Payments moved to payments_archive")
+            .register(meterRegistry);
+        this.archiveAfter = archiveAfter;
+        this.batchSize = batchSize;
+        this.monthsAhead = monthsAhead;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensurePartitions() {
+        YearMonth current = YearMonth.now();
+        paymentRepository.createMonthlyPartitions(current, current.plusMonths(monthsAhead));
+    }
+    
+    @Scheduled(cron = "${shopify.payments.maintenance-cron:0 30 3 * * *}")
+    public synchronized void runMaintenance() {
+        ensurePartitions();
+        LocalDateTime cutoff = LocalDateTime.now().minus(archiveAfter);
+        archiveBefore(cutoff);
+        paymentRepository.dropEmptyPartitionsBefore(YearMonth.from(cutoff));
+    }
+    
+    // Each batch commits on its own, so row locks are short and an interrupted run simply resumes next time
+    public long archiveBefore(LocalDateTime cutoff) {
+        long total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> paymentRepository.archiveTerminalPayments(cutoff, batchSize));
+            archived.increment(moved);
+            total += moved;
+        } while (moved == batchSize);
+        return total;
+    }
+}
@@ -1,12 +1,16 @@
 package com.shopify.service;
 
+import com.shopify.dto.PaymentModeDTO;
 import com.shopify.entity.PaymentMode;
+import com.shopify.event.ReferenceDataChangedEvent;
 import com.shopify.repository.PaymentModeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -15,40 +19,63 @@ public class PaymentModeService {
     @Autowired
     private PaymentModeRepository paymentModeRepository;
     
-    public List<PaymentMode> getAllPaymentModes() {
-        return paymentModeRepository.findAll();
+    @Autowired
+    private ReferenceDataService referenceDataService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    // Reads are served from the in-memory reference data snapshot
+    @Transactional(readOnly = true)
+    public List<PaymentModeDTO> getAllPaymentModes() {
+        return referenceDataService.getPaymentModes().stream()
+            .map(PaymentModeDTO::from)
+            .collect(Collectors.toList());
     }
     
-    public List<PaymentMode> getActivePaymentModes() {
-        return paymentModeRepository.findByIsActiveTrue();
+    @Transactional(readOnly = true)
+    public List<PaymentModeDTO> getActivePaymentModes() {
+        return referenceDataService.getActivePaymentModes().stream()
+            .map(PaymentModeDTO::from)
+            .collect(Collectors.toList());
     }
     
-    public Optional<PaymentMode> getPaymentModeById(Long id) {
-        return paymentModeRepository.findById(id);
+    @Transactional(readOnly = true)
+    public Optional<PaymentModeDTO> getPaymentModeById(Long id) {
+        return referenceDataService.getPaymentMode(id).map(PaymentModeDTO::from);
     }
     
-    public Optional<PaymentMode> getPaymentModeByName(String mode) {
-        return paymentModeRepository.findByMode(mode);
+    @Transactional(readOnly = true)
+    public Optional<PaymentModeDTO> getPaymentModeByName(String mode) {
+        return referenceDataService.getPaymentModeByName(mode).map(PaymentModeDTO::from);
     }
     
-    public PaymentMode createPaymentMode(PaymentMode paymentMode) {
+    // Writes go to the database; the snapshot is swapped once the transaction commits
+    public PaymentModeDTO createPaymentMode(PaymentModeDTO paymentMode) {
         if (paymentModeRepository.existsByMode(paymentMode.getMode())) {
             throw new IllegalArgumentException("Payment mode already exists: " + paymentMode.getMode());
         }
-        return paymentModeRepository.save(paymentMode);
+        PaymentMode created = new PaymentMode(paymentMode.getMode());
+        created.setIsActive(paymentMode.getIsActive());
+        created = paymentModeRepository.save(created);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent("payment-modes"));
+        return PaymentModeDTO.from(created);
     }
     
-    public PaymentMode updatePaymentMode(Long id, PaymentMode paymentMode) {
+    public PaymentModeDTO updatePaymentMode(Long id, PaymentModeDTO paymentMode) {
         PaymentMode existing = paymentModeRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Payment mode not found with id: " + id));
         
         existing.setMode(paymentMode.getMode());
         existing.setIsActive(paymentMode.getIsActive());
-        return paymentModeRepository.save(existing);
+        PaymentMode updated = paymentModeRepository.save(existing);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent("payment-modes"));
+        return PaymentModeDTO.from(updated);
     }
     
     public void deletePaymentMode(Long id) {
         paymentModeRepository.deleteById(id);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent("payment-modes"));
     }
     
     public void togglePaymentModeStatus(Long id) {
@@ -57,5 +84,6 @@ public class PaymentModeService {
         
         paymentMode.setIsActive(!paymentMode.getIsActive());
         paymentModeRepository.save(paymentMode);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent("payment-modes"));
     }
 }
@@ -1,19 +1,44 @@
 package com.shopify.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.shopify.config.SerializationConfig;
+import com.shopify.dto.PaymentField;
 import com.shopify.dto.PaymentRequestDTO;
 import com.shopify.dto.PaymentResponseDTO;
+import com.shopify.entity.ArchivedPayment;
 import com.shopify.entity.Payment;
 import com.shopify.entity.Payment.PaymentStatus;
 import com.shopify.entity.PaymentMode;
+import com.shopify.event.PaymentChangedEvent;
+import com.shopify.repository.ArchivedPaymentRepository;
 import com.shopify.repository.PaymentRepository;
-import com.shopify.repository.PaymentModeRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -23,86 +48,269 @@ public class PaymentService {
     private PaymentRepository paymentRepository;
     
     @Autowired
-    private PaymentModeRepository paymentModeRepository;
+    private ReferenceDataService referenceDataService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private TransactionIdFilter transactionIdFilter;
+    
+    @Autowired
+    private ArchivedPaymentRepository archivedPaymentRepository;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+    
+    private static final String TRANSACTION_ID_CONSTRAINT = "uk_payments_transaction_id";
+    private static final LocalDateTime EXPORT_RANGE_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime EXPORT_RANGE_END = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
     
     public PaymentResponseDTO createPayment(PaymentRequestDTO requestDTO) {
-        // Validate payment mode
-        PaymentMode paymentMode = paymentModeRepository.findById(requestDTO.getPaymentModeId())
-            .orElseThrow(() -> new RuntimeException("Payment mode not found with id: " + requestDTO.getPaymentModeId()));
+        Payment payment = buildPayment(requestDTO);
+        reserveTransactionIds(List.of(payment));
         
-        if (!paymentMode.getIsActive()) {
-            throw new RuntimeException("Payment mode is not active: " + paymentMode.getMode());
+        Payment savedPayment;
+        try {
+            // Flushed here so a concurrent duplicate that slipped past the check surfaces as a conflict
+            savedPayment = paymentRepository.saveAndFlush(payment);
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateTransactionId(e)) {
+                throw new IllegalStateException("Duplicate transaction id: " + payment.getTransactionId());
+            }
+            throw e;
         }
+        eventPublisher.publishEvent(new PaymentChangedEvent(savedPayment, null));
+        return convertToDTO(savedPayment);
+    }
+    
+    // Bulk ingest: every request is validated before anything is written, then rows go out through
+    // saveAll in JDBC batches of hibernate.jdbc.batch_size. The persistence context is flushed and cleared
+    // per batch so memory stays flat however large the request is.
+    public List<PaymentResponseDTO> createPayments(List<PaymentRequestDTO> requestDTOs) {
+        List<Payment> payments = requestDTOs.stream()
+            .map(this::buildPayment)
+            .toList();
+        reserveTransactionIds(payments);
         
-        // Validate amount
-        if (requestDTO.getAmount() == null || requestDTO.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Amount must be greater than zero");
+        List<PaymentResponseDTO> responses = new ArrayList<>(payments.size());
+        for (int from = 0; from < payments.size(); from += batchSize) {
+            List<Payment> saved = paymentRepository.saveAll(payments.subList(from, Math.min(from + batchSize, payments.size())));
+            try {
+                entityManager.flush();
+            } catch (ConstraintViolationException e) {
+                if (isDuplicateTransactionId(e)) {
+                    throw new IllegalStateException("Duplicate transaction id in batch");
+                }
+                throw e;
+            }
+            entityManager.clear();
+            for (Payment payment : saved) {
+                eventPublisher.publishEvent(new PaymentChangedEvent(payment, null));
+                responses.add(convertToDTO(payment));
+            }
         }
-        
-        // Create payment
-        Payment payment = new Payment();
-        payment.setPaymentMode(paymentMode);
-        payment.setAmount(requestDTO.getAmount());
-        payment.setTransactionId(requestDTO.getTransactionId());
-        payment.setRemarks(requestDTO.getRemarks());
-        payment.setPaymentDate(LocalDateTime.now());
-        
-        // Set status based on payment mode
-        if ("Cash On Delivery".equalsIgnoreCase(paymentMode.getMode())) {
-            payment.setStatus(PaymentStatus.PENDING);
-        } else {
-            // For online payments, you would integrate with payment gateway here
-            // For now, we'll set it as PENDING
-            payment.setStatus(PaymentStatus.PENDING);
+        return responses;
+    }
+    
+    public PaymentResponseDTO updatePaymentStatus(Long paymentId, PaymentStatus status) {
+        Payment payment = paymentRepository.findById(paymentId).orElse(null);
+        if (payment == null) {
+            return updateArchivedPaymentStatus(paymentId, status);
         }
         
-        Payment savedPayment = paymentRepository.save(payment);
-        return convertToDTO(savedPayment);
+        PaymentStatus previousStatus = payment.getStatus();
+        payment.setStatus(status);
+        Payment updatedPayment = paymentRepository.save(payment);
+        eventPublisher.publishEvent(new PaymentChangedEvent(updatedPayment, previousStatus));
+        return convertToDTO(updatedPayment);
     }
     
-    public PaymentResponseDTO updatePaymentStatus(Long paymentId, PaymentStatus status) {
-        Payment payment = paymentRepository.findById(paymentId)
+    // Archived payments are COMPLETED, FAILED or REFUNDED; a COMPLETED one can still be refunded. Nothing else
+    // changes there: a payment moved back to a non-terminal status would sit in the cold table, where neither
+    // the archive job nor the live status handling looks at it again.
+    private PaymentResponseDTO updateArchivedPaymentStatus(Long paymentId, PaymentStatus status) {
+        ArchivedPayment payment = archivedPaymentRepository.findById(paymentId)
             .orElseThrow(() -> new RuntimeException("Payment not found with id: " + paymentId));
         
+        PaymentStatus previousStatus = payment.getStatus();
+        if (previousStatus != PaymentStatus.COMPLETED || status != PaymentStatus.REFUNDED) {
+            throw new IllegalStateException("Archived payment " + paymentId + " can only go from COMPLETED to REFUNDED, not "
+                + previousStatus + " to " + status);
+        }
         payment.setStatus(status);
-        Payment updatedPayment = paymentRepository.save(payment);
+        ArchivedPayment updatedPayment = archivedPaymentRepository.save(payment);
+        eventPublisher.publishEvent(new PaymentChangedEvent(new Payment(updatedPayment.getId(), updatedPayment.getPaymentDate(),
+            updatedPayment.getPaymentMode(), updatedPayment.getTransactionId(), updatedPayment.getAmount(),
+            updatedPayment.getStatus(), updatedPayment.getRemarks()), previousStatus));
         return convertToDTO(updatedPayment);
     }
     
+    @Transactional(readOnly = true)
     public List<PaymentResponseDTO> getAllPayments() {
         return paymentRepository.findAll().stream()
             .map(this::convertToDTO)
             .collect(Collectors.toList());
     }
     
+    // Only the selected fields of each live payment, or with a status of each payment in that status, archived
+    // ones after the live ones; columns that were not asked for (and the payment mode join) are left out of the query
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getPaymentFields(Set<PaymentField> fields, PaymentStatus status) {
+        List<Map<String, Object>> rows = paymentRepository.findFields(fields, status);
+        if (status == null) {
+            return rows;
+        }
+        List<Map<String, Object>> all = new ArrayList<>(rows);
+        all.addAll(paymentRepository.findArchivedFields(fields, status));
+        return all;
+    }
+    
+    // Writes matching payments as newline-delimited JSON, live payments first, then the archive. Each entity is
+    // detached once written, so heap use stays flat no matter how many rows the export covers.
+    @Transactional(readOnly = true)
+    public void exportPayments(PaymentStatus status, LocalDateTime from, LocalDateTime to, OutputStream out) {
+        boolean dated = from != null || to != null;
+        LocalDateTime start = from != null ? from : EXPORT_RANGE_START;
+        LocalDateTime end = to != null ? to : EXPORT_RANGE_END;
+        
+        ObjectWriter writer = objectMapper.writerFor(PaymentResponseDTO.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (Stream<Payment> payments = status == null
+                ? (dated ? paymentRepository.streamByPaymentDateBetweenOrderByIdAsc(start, end)
+                         : paymentRepository.streamAllByOrderByIdAsc())
+                : (dated ? paymentRepository.streamByStatusAndPaymentDateBetweenOrderByIdAsc(status, start, end)
+                         : paymentRepository.streamByStatusOrderByIdAsc(status));
+             JsonGenerator generator = SerializationConfig.ndjsonGenerator(objectMapper, out)) {
+            payments.forEach(payment -> writeLine(writer, generator, convertToDTO(payment), payment));
+            try (Stream<ArchivedPayment> archived = status == null
+                    ? archivedPaymentRepository.streamByPaymentDateBetweenOrderByIdAsc(start, end)
+                    : archivedPaymentRepository.streamByStatusAndPaymentDateBetweenOrderByIdAsc(status, start, end)) {
+                archived.forEach(payment -> writeLine(writer, generator, convertToDTO(payment), payment));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void writeLine(ObjectWriter writer, JsonGenerator generator, PaymentResponseDTO payment, Object entity) {
+        try {
+            writer.writeValue(generator, payment);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        entityManager.detach(entity);
+    }
+    
+    // Live payments first, then the archive
+    @Transactional(readOnly = true)
     public PaymentResponseDTO getPaymentById(Long id) {
-        Payment payment = paymentRepository.findById(id)
+        return paymentRepository.findById(id).map(this::convertToDTO)
+            .or(() -> archivedPaymentRepository.findById(id).map(this::convertToDTO))
             .orElseThrow(() -> new RuntimeException("Payment not found with id: " + id));
-        return convertToDTO(payment);
     }
     
+    // Live payments first, then the archive
+    @Transactional(readOnly = true)
     public List<PaymentResponseDTO> getPaymentsByStatus(PaymentStatus status) {
-        return paymentRepository.findByStatus(status).stream()
-            .map(this::convertToDTO)
+        return Stream.concat(
+                paymentRepository.findByStatus(status).stream().map(this::convertToDTO),
+                archivedPaymentRepository.findByStatus(status).stream().map(this::convertToDTO))
             .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public PaymentResponseDTO getPaymentByTransactionId(String transactionId) {
-        Payment payment = paymentRepository.findByTransactionId(transactionId)
-            .orElseThrow(() -> new RuntimeException("Payment not found with transaction id: " + transactionId));
-        return convertToDTO(payment);
+        // Ids the filter has never seen are answered without a query
+        Optional<PaymentResponseDTO> payment = transactionIdFilter.mightExist(transactionId)
+            ? paymentRepository.findByTransactionId(transactionId).map(this::convertToDTO)
+                .or(() -> archivedPaymentRepository.findByTransactionId(transactionId).map(this::convertToDTO))
+            : Optional.empty();
+        return payment.orElseThrow(() -> new RuntimeException("Payment not found with transaction id: " + transactionId));
     }
     
+    // Totals include archived payments
+    @Transactional(readOnly = true)
     public BigDecimal getTotalCompletedPayments() {
         BigDecimal total = paymentRepository.getTotalCompletedPayments();
         return total != null ? total : BigDecimal.ZERO;
     }
     
+    @Transactional(readOnly = true)
     public long getPaymentCountByStatus(PaymentStatus status) {
-        return paymentRepository.countByStatus(status);
+        return paymentRepository.countByStatus(status.name());
+    }
+    
+    // Rejects ids that repeat within the request or are already stored, then adds them to the filter. Only ids
+    // the filter reports as possibly known cost an index lookup.
+    private void reserveTransactionIds(List<Payment> payments) {
+        Set<String> seen = new HashSet<>();
+        for (Payment payment : payments) {
+            String transactionId = payment.getTransactionId();
+            if (transactionId == null) {
+                continue;
+            }
+            if (!seen.add(transactionId)
+                    || (transactionIdFilter.mightExist(transactionId)
+                        && (paymentRepository.existsByTransactionId(transactionId) || archivedPaymentRepository.existsByTransactionId(transactionId)))) {
+                throw new IllegalStateException("Duplicate transaction id: " + transactionId);
+            }
+        }
+        seen.forEach(transactionIdFilter::add);
+    }
+    
+    private boolean isDuplicateTransactionId(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(TRANSACTION_ID_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
     }
     
-    private PaymentResponseDTO convertToDTO(Payment payment) {
+    private Payment buildPayment(PaymentRequestDTO requestDTO) {
+        // Validate payment mode
+        // Served from the reference data snapshot; the detached mode is only used as the foreign key
+        PaymentMode paymentMode = referenceDataService.getPaymentMode(requestDTO.getPaymentModeId())
+            .orElseThrow(() -> new RuntimeException("Payment mode not found with id: " + requestDTO.getPaymentModeId()));
+        
+        if (!paymentMode.getIsActive()) {
+            throw new RuntimeException("Payment mode is not active: " + paymentMode.getMode());
+        }
+        
+        // Validate amount
+        if (requestDTO.getAmount() == null || requestDTO.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Amount must be greater than zero");
+        }
+        
+        // Create payment
+        Payment payment = new Payment();
+        payment.setPaymentMode(paymentMode);
+        payment.setAmount(requestDTO.getAmount());
+        payment.setTransactionId(StringUtils.hasText(requestDTO.getTransactionId()) ? requestDTO.getTransactionId().trim() : null);
+        payment.setRemarks(requestDTO.getRemarks());
+        payment.setPaymentDate(LocalDateTime.now());
+        
+        // Set status based on payment mode
+        if ("Cash On Delivery".equalsIgnoreCase(paymentMode.getMode())) {
+            payment.setStatus(PaymentStatus.PENDING);
+        } else {
+            // For online payments, you would integrate with payment gateway here
+            // For now, we'll set it as PENDING
+            payment.setStatus(PaymentStatus.PENDING);
+        }
+        return payment;
+    }
+    
+    private PaymentResponseDTO convertToDTO(ArchivedPayment payment) {
         return new PaymentResponseDTO(
             payment.getId(),
             payment.getPaymentDate(),
@@ -113,4 +321,8 @@ public class PaymentService {
             payment.getRemarks()
         );
     }
+    
+    public PaymentResponseDTO convertToDTO(Payment payment) {
+        return PaymentResponseDTO.from(payment);
+    }
 }
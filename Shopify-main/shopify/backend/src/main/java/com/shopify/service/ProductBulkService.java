@@ -0,0 +1,265 @@
+package com.shopify.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.shopify.config.SerializationConfig;
+import com.shopify.dto.ProductImportResultDTO;
+import com.shopify.dto.ProductImportResultDTO.RowError;
+import com.shopify.dto.ProductRowDTO;
+import com.shopify.entity.Category;
+import com.shopify.entity.Product;
+import com.shopify.event.ProductsImportedEvent;
+import com.shopify.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Streaming catalog import/export for supplier feeds. Input is parsed one row at a time and written in
+// chunks, each committed on its own, so neither side ever holds the whole feed in memory.
+// A bad row is reported and skipped; it never fails the rows around it.
+@Service
+@RequiredArgsConstructor
+public class ProductBulkService {
+    
+    private static final int CHUNK_SIZE = 5000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+        .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+        .enable(CsvParser.Feature.IGNORE_TRAILING_UNMAPPABLE)
+        .enable(CsvParser.Feature.TRIM_SPACES)
+        .build();
+    
+    private final ProductRepository productRepository;
+    private final ReferenceDataService referenceDataService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+    
+    public ProductImportResultDTO importProducts(InputStream in, Format format) {
+        Importer importer = new Importer();
+        try {
+            if (format == Format.CSV) {
+                readCsv(in, importer);
+            } else {
+                readNdjson(in, importer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            importer.flush();
+            if (importer.imported > 0) {
+                eventPublisher.publishEvent(new ProductsImportedEvent(importer.imported));
+            }
+        }
+        return new ProductImportResultDTO(importer.imported, importer.failed, importer.errors);
+    }
+    
+    // Same columns/fields that import accepts, so an export can be edited and fed back in
+    @Transactional(readOnly = true)
+    public void exportProducts(Format format, OutputStream out) {
+        ObjectWriter writer = format == Format.CSV
+            ? CSV_MAPPER.writer(CSV_MAPPER.schemaFor(ProductRowDTO.class).withHeader())
+            : objectMapper.writerFor(ProductRowDTO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (Stream<Product> products = productRepository.streamAllByOrderByIdAsc()) {
+            if (format == Format.CSV) {
+                try (SequenceWriter rows = writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValues(out)) {
+                    products.forEach(product -> {
+                        try {
+                            rows.write(toRow(product));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        entityManager.detach(product);
+                    });
+                }
+            } else {
+                try (JsonGenerator generator = SerializationConfig.ndjsonGenerator(objectMapper, out)) {
+                    products.forEach(product -> {
+                        try {
+                            writer.writeValue(generator, toRow(product));
+                            generator.writeRaw('\n');
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        entityManager.detach(product);
+                    });
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void readCsv(InputStream in, Importer importer) throws IOException {
+        ObjectReader reader = CSV_MAPPER.readerFor(ProductRowDTO.class)
+            .with(CsvSchema.emptySchema().withHeader())
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        try (MappingIterator<ProductRowDTO> rows = reader.readValues(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            long row = 0;
+            while (true) {
+                ProductRowDTO value;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row++;
+                    value = rows.nextValue();
+                } catch (IOException | RuntimeException e) {
+                    // Bad value in this record (e.g. a price that is not a number); the iterator skips to the next one
+                    importer.reject(row, "Unreadable row: " + describe(e));
+                    continue;
+                }
+                importer.accept(row, value);
+            }
+        }
+    }
+    
+    private void readNdjson(InputStream in, Importer importer) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(ProductRowDTO.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        long row = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            ProductRowDTO value;
+            try {
+                value = reader.readValue(line);
+            } catch (JsonProcessingException e) {
+                importer.reject(row, "Unreadable line: " + describe(e));
+                continue;
+            }
+            importer.accept(row, value);
+        }
+    }
+    
+    private Product toProduct(ProductRowDTO row) {
+        if (row.getName() == null || row.getName().isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        if (row.getName().length() > 255) {
+            throw new IllegalArgumentException("name is longer than 255 characters");
+        }
+        if (row.getPrice() == null || row.getPrice() < 0 || row.getPrice().isNaN() || row.getPrice().isInfinite()) {
+            throw new IllegalArgumentException("price must be a number of at least 0");
+        }
+        if (row.getTotalItemsInStock() == null || row.getTotalItemsInStock() < 0) {
+            throw new IllegalArgumentException("totalItemsInStock must be a whole number of at least 0");
+        }
+        if (row.getImageUrl() != null && row.getImageUrl().length() > 1000) {
+            throw new IllegalArgumentException("imageUrl is longer than 1000 characters");
+        }
+        // Resolved against the in-memory category snapshot; nothing is looked up per row in the database
+        Category category = row.getCategoryId() != null
+            ? referenceDataService.getCategory(row.getCategoryId())
+                .orElseThrow(() -> new IllegalArgumentException("Unknown categoryId: " + row.getCategoryId()))
+            : referenceDataService.getCategoryByName(row.getCategory())
+                .orElseThrow(() -> new IllegalArgumentException(row.getCategory() == null
+                    ? "category or categoryId is required"
+                    : "Unknown category: " + row.getCategory()));
+        return new Product(row.getName(), row.getPrice(), row.getTotalItemsInStock(), row.getImageUrl(), category);
+    }
+    
+    // First line of the root cause; Jackson appends source locations on the following lines
+    private static String describe(Exception e) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+        String message = cause instanceof JsonProcessingException json ? json.getOriginalMessage() : cause.getMessage();
+        return message == null ? cause.getClass().getSimpleName() : message.lines().findFirst().orElse(message);
+    }
+    
+    private static ProductRowDTO toRow(Product product) {
+        return new ProductRowDTO(
+            product.getId(),
+            product.getName(),
+            product.getPrice(),
+            product.getTotalItemsInStock(),
+            product.getImageUrl(),
+            product.getCategory().getName(),
+            product.getCategory().getId());
+    }
+    
+    // Collects valid rows into chunks and keeps the tally for the result
+    private class Importer {
+        private final List<Product> chunk = new ArrayList<>(CHUNK_SIZE);
+        private final List<Long> chunkRows = new ArrayList<>(CHUNK_SIZE);
+        private final List<RowError> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+        
+        void accept(long row, ProductRowDTO value) {
+            Product product;
+            try {
+                product = toProduct(value);
+            } catch (IllegalArgumentException e) {
+                reject(row, e.getMessage());
+                return;
+            }
+            chunk.add(product);
+            chunkRows.add(row);
+            if (chunk.size() == CHUNK_SIZE) {
+                flush();
+            }
+        }
+        
+        void reject(long row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(row, message));
+            }
+        }
+        
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                Integer inserted = transactionTemplate.execute(status -> productRepository.bulkInsert(chunk));
+                imported += inserted;
+            } catch (DataAccessException e) {
+                // Rows were validated up front, so this is the database refusing the chunk as a whole
+                String message = "Not imported: " + describe(e);
+                chunkRows.forEach(row -> reject(row, message));
+            }
+            chunk.clear();
+            chunkRows.clear();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.shopify.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.shopify.dto.CacheStatsDTO;
+import com.shopify.dto.ProductDTO;
+import com.shopify.dto.ProductStockView;
+import com.shopify.event.ProductChangedEvent;
+import com.shopify.event.ProductsImportedEvent;
+import com.shopify.event.StockChangedEvent;
+import com.shopify.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Read-through cache for product reads. Each entry carries a strong ETag computed once when it is loaded,
+// so conditional requests are answered with 304 without touching the database or serializing anything.
+@Service
+public class ProductCacheService {
+    
+    private static final String CATALOG_KEY = "all";
+    
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, Cached<ProductDTO>> products;
+    private final Cache<String, Cached<List<ProductDTO>>> catalog;
+    // Products whose stock moved since the cached catalog was built or last patched
+    private final Set<Long> staleStock = ConcurrentHashMap.newKeySet();
+    
+    public ProductCacheService(ProductRepository productRepository,
+                               TransactionTemplate transactionTemplate,
+                               ObjectMapper objectMapper,
+                               @Value("${shopify.product-cache.maximum-size:10000}") long maximumSize,
+                               @Value("${shopify.product-cache.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.products = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+        this.catalog = Caffeine.newBuilder()
+            .maximumSize(1)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+    }
+    
+    // Loads run in a read-write transaction so they come from the primary: an entry loaded from a lagging
+    // replica right after an eviction would serve the old state until it expires
+    public Cached<List<ProductDTO>> getAllProducts() {
+        if (!staleStock.isEmpty()) {
+            catalog.asMap().computeIfPresent(CATALOG_KEY, (key, cached) -> refreshStock(cached));
+        }
+        return catalog.get(CATALOG_KEY, key -> transactionTemplate.execute(status -> {
+            // Anything that commits after this point is patched in by the next read
+            staleStock.clear();
+            return cache(productRepository.findAll().stream().map(ProductDTO::from).toList());
+        }));
+    }
+    
+    public Optional<Cached<ProductDTO>> getProduct(Long id) {
+        // A null load result is not stored, so unknown ids always go to the database
+        return Optional.ofNullable(products.get(id, key -> transactionTemplate.execute(status ->
+            productRepository.findById(key).map(product -> cache(ProductDTO.from(product))).orElse(null))));
+    }
+    
+    public CacheStatsDTO getStats() {
+        CacheStats stats = products.stats().plus(catalog.stats());
+        return new CacheStatsDTO(
+            products.estimatedSize() + catalog.estimatedSize(),
+            stats.hitCount(),
+            stats.missCount(),
+            stats.hitRate(),
+            stats.evictionCount()
+        );
+    }
+    
+    // Caffeine blocks an invalidation on a key that is still loading, so a load racing a commit never survives it.
+    // Evictions run before other listeners, ahead of CatalogChangeLog handing out the change's version.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        products.invalidate(event.getProductId());
+        catalog.invalidateAll();
+    }
+    
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        products.invalidate(event.getProductId());
+        staleStock.add(event.getProductId());
+    }
+    
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        catalog.invalidateAll();
+    }
+    
+    // Stock moves far more often than anything else in the catalog, so the cached list is patched with the
+    // current stock of the products that moved (one query, run under the entry's lock so patches apply in
+    // order) instead of reloading every product. Events only mark products, so a burst costs one patch.
+    private Cached<List<ProductDTO>> refreshStock(Cached<List<ProductDTO>> cached) {
+        List<Long> ids = new ArrayList<>();
+        staleStock.removeIf(ids::add);
+        if (ids.isEmpty()) {
+            return cached;
+        }
+        Map<Long, Integer> stock = transactionTemplate.execute(status -> productRepository.findStockViewsByIds(ids).stream()
+            .collect(Collectors.toMap(ProductStockView::getId, ProductStockView::getTotalItemsInStock)));
+        if (stock.size() != ids.size()) {
+            // Deleted since; let the next read rebuild the list
+            return null;
+        }
+        return cache(cached.value().stream()
+            .map(product -> stock.containsKey(product.getId()) ? product.withStock(stock.get(product.getId())) : product)
+            .toList());
+    }
+    
+    private <T> Cached<T> cache(T value) {
+        try {
+            return new Cached<>(value, DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(value)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not compute ETag", e);
+        }
+    }
+    
+    public record Cached<T>(T value, String etag) {
+    }
+}
@@ -0,0 +1,216 @@
+package com.shopify.service;
+
+import com.shopify.dto.ProductDTO;
+import com.shopify.dto.ProductField;
+import com.shopify.dto.ProductPageDTO;
+import com.shopify.entity.Product;
+import com.shopify.repository.ProductRepository;
+import com.shopify.repository.ProductRepositoryCustom;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ProductCatalogService {
+    
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    
+    private final ProductRepository productRepository;
+    private final ProductRangeIndex productRangeIndex;
+    
+    @Value("${shopify.catalog.low-stock-threshold:10}")
+    private int lowStockThreshold;
+    
+    // Price/stock ordering and bounds are answered from the in-memory range index; id and name order
+    // are keyset queries. With fields, items hold only those fields and the query selects only their columns.
+    public ProductPageDTO<?> getProductPage(String sort, String direction, Long categoryId, String cursor, Integer limit,
+                                            ProductRangeIndex.Bounds bounds, Set<ProductField> fields) {
+        SortKey sortKey = sort == null && !bounds.isEmpty()
+            ? (bounds.column() == ProductRangeIndex.Column.PRICE ? SortKey.PRICE : SortKey.STOCK)
+            : SortKey.from(sort);
+        Sort.Direction sortDirection = Sort.Direction.fromString(direction == null ? "asc" : direction);
+        int pageSize = Math.min(Math.max(limit == null ? DEFAULT_PAGE_SIZE : limit, 1), MAX_PAGE_SIZE);
+        
+        if (sortKey == SortKey.PRICE || sortKey == SortKey.STOCK || !bounds.isEmpty()) {
+            return getIndexedPage(sortKey, sortDirection, categoryId, cursor, pageSize, bounds, fields);
+        }
+        if (fields != null) {
+            return getProjectedPage(sortKey, sortDirection, categoryId, cursor, pageSize, fields);
+        }
+        
+        // id is always the last sort key so ties on price/name still give a stable order
+        Sort order = sortKey == SortKey.ID
+            ? Sort.by(sortDirection, "id")
+            : Sort.by(sortDirection, sortKey.property).and(Sort.by(sortDirection, "id"));
+        ScrollPosition position = cursor == null || cursor.isBlank()
+            ? ScrollPosition.keyset()
+            : decodeCursor(cursor, sortKey, sortDirection);
+        
+        Window<Product> window = categoryId == null
+            ? productRepository.findBy(position, order, Limit.of(pageSize))
+            : productRepository.findByCategoryId(categoryId, position, order, Limit.of(pageSize));
+        
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            Product last = window.getContent().get(window.size() - 1);
+            nextCursor = encodeCursor(sortKey, sortDirection, last.getId(), sortKey.valueOf(last));
+        }
+        return new ProductPageDTO<>(window.getContent().stream().map(ProductDTO::from).toList(), nextCursor);
+    }
+    
+    // Every product, or only the selected fields of every product, in id order
+    public List<Map<String, Object>> getProductFields(Set<ProductField> fields) {
+        return productRepository.findFields(fields, null, SortKey.ID.property, false, null, null, null).stream()
+            .map(ProductRepositoryCustom.ProjectedRow::fields)
+            .toList();
+    }
+    
+    // Products at or below the threshold, lowest stock first
+    public ProductPageDTO<?> getLowStockPage(Integer threshold, Long categoryId, String cursor, Integer limit,
+                                             Set<ProductField> fields) {
+        int maxStock = threshold == null ? lowStockThreshold : threshold;
+        return getProductPage("stock", "asc", categoryId, cursor, limit,
+                              ProductRangeIndex.Bounds.of(null, null, null, maxStock, null), fields);
+    }
+    
+    private ProductPageDTO<?> getIndexedPage(SortKey sortKey, Sort.Direction direction, Long categoryId, String cursor,
+                                             int pageSize, ProductRangeIndex.Bounds bounds, Set<ProductField> fields) {
+        if (sortKey != SortKey.PRICE && sortKey != SortKey.STOCK) {
+            throw new IllegalArgumentException("Price and stock bounds require sort=price or sort=stock");
+        }
+        
+        Double afterValue = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            Map<String, Object> keys = decodeCursor(cursor, sortKey, direction).getKeys();
+            afterValue = ((Number) keys.get(sortKey.property)).doubleValue();
+            afterId = (Long) keys.get("id");
+        }
+        
+        List<Product> items = productRangeIndex.query(categoryId, bounds,
+            sortKey == SortKey.PRICE ? ProductRangeIndex.Column.PRICE : ProductRangeIndex.Column.STOCK,
+            direction.isDescending(), afterValue, afterId, pageSize);
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            Product last = items.get(pageSize - 1);
+            nextCursor = encodeCursor(sortKey, direction, last.getId(), sortKey.valueOf(last));
+        }
+        
+        // The index already holds whole products, so a selection only trims what is serialized
+        List<ProductDTO> products = items.stream().map(ProductDTO::from).toList();
+        return fields == null
+            ? new ProductPageDTO<>(products, nextCursor)
+            : new ProductPageDTO<>(products.stream().map(product -> ProductField.project(product, fields)).toList(), nextCursor);
+    }
+    
+    private ProductPageDTO<Map<String, Object>> getProjectedPage(SortKey sortKey, Sort.Direction direction, Long categoryId,
+                                                                 String cursor, int pageSize, Set<ProductField> fields) {
+        Object afterValue = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            Map<String, Object> keys = decodeCursor(cursor, sortKey, direction).getKeys();
+            afterValue = keys.get(sortKey.property);
+            afterId = (Long) keys.get("id");
+        }
+        
+        // One row past the page tells whether there is another
+        List<ProductRepositoryCustom.ProjectedRow> rows = productRepository.findFields(fields, categoryId, sortKey.property,
+            direction.isDescending(), afterValue, afterId, pageSize + 1);
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            ProductRepositoryCustom.ProjectedRow last = rows.get(pageSize - 1);
+            nextCursor = encodeCursor(sortKey, direction, last.id(), last.orderValue());
+        }
+        return new ProductPageDTO<>(rows.stream().map(ProductRepositoryCustom.ProjectedRow::fields).toList(), nextCursor);
+    }
+    
+    // Cursor layout: sort|direction|id|sortValue, base64url encoded so clients treat it as opaque
+    private String encodeCursor(SortKey sortKey, Sort.Direction direction, Long lastId, Object lastValue) {
+        String raw = sortKey.name() + "|" + direction.name() + "|" + lastId + "|" + lastValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private KeysetScrollPosition decodeCursor(String cursor, SortKey sortKey, Sort.Direction direction) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 4);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        if (parts.length != 4 || !parts[0].equals(sortKey.name()) || !parts[1].equals(direction.name())) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort order");
+        }
+        
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            if (sortKey != SortKey.ID) {
+                keys.put(sortKey.property, sortKey.parse(parts[3]));
+            }
+            keys.put("id", Long.parseLong(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return ScrollPosition.forward(keys);
+    }
+    
+    private enum SortKey {
+        ID("id"),
+        PRICE("price"),
+        NAME("name"),
+        STOCK("totalItemsInStock");
+        
+        private final String property;
+        
+        SortKey(String property) {
+            this.property = property;
+        }
+        
+        static SortKey from(String sort) {
+            if (sort == null || sort.isBlank()) {
+                return ID;
+            }
+            try {
+                return valueOf(sort.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported sort key: " + sort);
+            }
+        }
+        
+        Object valueOf(Product product) {
+            return switch (this) {
+                case ID -> product.getId();
+                case PRICE -> product.getPrice();
+                case NAME -> product.getName();
+                case STOCK -> product.getTotalItemsInStock();
+            };
+        }
+        
+        Object parse(String value) {
+            return switch (this) {
+                case ID -> Long.parseLong(value);
+                case PRICE -> Double.parseDouble(value);
+                case NAME -> value;
+                case STOCK -> Integer.parseInt(value);
+            };
+        }
+    }
+}
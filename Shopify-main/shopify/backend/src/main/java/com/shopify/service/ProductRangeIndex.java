@@ -0,0 +1,421 @@
+package com.shopify.service;
+
+import com.shopify.entity.Product;
+import com.shopify.event.ProductChangedEvent;
+import com.shopify.event.ProductsImportedEvent;
+import com.shopify.event.StockChangedEvent;
+import com.shopify.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Price and stock of every product in primitive arrays sorted by (value, id), one pair per category plus one
+// for the whole catalog. Range filters, cheapest/most expensive and low-stock queries binary search to the
+// start of the range and walk it, without touching the database. A stock or price change shifts only the
+// entries between the old and the new position, which is usually a handful.
+@Service
+@RequiredArgsConstructor
+public class ProductRangeIndex {
+    
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private Index index = new Index();
+    private final Set<Long> touchedDuringRebuild = new HashSet<>();
+    private boolean rebuilding;
+    // Startup, imports and the schedule can all ask for a rebuild; they share the touched set above, so they
+    // run one at a time. A rebuild that waited still runs, since the one before it may predate its import.
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    
+    // Walks the partition in sortColumn order from just past the cursor (afterValue, afterId), keeping products
+    // within both bounds, and returns up to limit + 1 of them so the caller can tell whether another page exists
+    public List<Product> query(Long categoryId, Bounds bounds, Column sortColumn, boolean descending,
+                               Double afterValue, Long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            Partition partition = categoryId == null ? index.all : index.byCategory.get(categoryId);
+            if (partition == null) {
+                return List.of();
+            }
+            
+            SortedColumn column = sortColumn == Column.PRICE ? partition.prices : partition.stocks;
+            double min = sortColumn == Column.PRICE ? bounds.lowestPrice() : bounds.lowestStock();
+            double max = sortColumn == Column.PRICE ? bounds.highestPrice() : bounds.highestStock();
+            int from = column.position(min, Long.MIN_VALUE);
+            int to = column.position(max, Long.MAX_VALUE);
+            if (afterId != null) {
+                if (descending) {
+                    to = Math.min(to, column.position(afterValue, afterId));
+                } else {
+                    from = Math.max(from, column.position(afterValue, afterId + 1));
+                }
+            }
+            
+            List<Product> result = new ArrayList<>();
+            for (int i = descending ? to - 1 : from; descending ? i >= from : i < to; i += descending ? -1 : 1) {
+                Product product = index.products.get(column.ids[i]);
+                if (bounds.contains(product)) {
+                    result.add(product);
+                    if (result.size() > limit) {
+                        break;
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.isDeleted()) {
+                index.remove(event.getProductId());
+            } else {
+                index.put(copyOf(event.getProduct(), event.getProduct().getTotalItemsInStock()));
+            }
+            touch(event.getProductId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            Product current = index.products.get(event.getProductId());
+            if (current != null) {
+                index.put(copyOf(current, event.getRemainingStock()));
+                touch(current.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        rebuild();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+    
+    @Scheduled(fixedDelayString = "${shopify.catalog.rebuild-interval-ms:600000}",
+               initialDelayString = "${shopify.catalog.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuildExclusively();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+    
+    private void rebuildExclusively() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringRebuild.clear();
+            rebuilding = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        try {
+            List<Product> rows = new ArrayList<>();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Product> products = productRepository.streamAllByOrderByIdAsc()) {
+                    products.forEach(product -> rows.add(copyOf(product, product.getTotalItemsInStock())));
+                }
+            });
+            
+            lock.writeLock().lock();
+            try {
+                // Products written while the query ran keep their event-driven values
+                Map<Long, Product> fresh = new HashMap<>();
+                for (Product product : rows) {
+                    if (!touchedDuringRebuild.contains(product.getId())) {
+                        fresh.put(product.getId(), product);
+                    }
+                }
+                for (Long id : touchedDuringRebuild) {
+                    Product current = index.products.get(id);
+                    if (current != null) {
+                        fresh.put(id, current);
+                    }
+                }
+                index = Index.of(fresh);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                touchedDuringRebuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+    
+    private void touch(Long id) {
+        if (rebuilding) {
+            touchedDuringRebuild.add(id);
+        }
+    }
+    
+    // Indexed products are never modified in place, so they can be handed out to readers as they are
+    private static Product copyOf(Product product, int stock) {
+        return new Product(product.getId(), product.getName(), product.getPrice(), stock,
+                           product.getImageUrl(), product.getCategory());
+    }
+    
+    public enum Column {
+        PRICE,
+        STOCK
+    }
+    
+    // Inclusive bounds; null means unbounded
+    public record Bounds(Double minPrice, Double maxPrice, Integer minStock, Integer maxStock) {
+        
+        public static Bounds of(Double minPrice, Double maxPrice, Integer minStock, Integer maxStock, Boolean inStock) {
+            if (Boolean.TRUE.equals(inStock)) {
+                minStock = Math.max(minStock == null ? 1 : minStock, 1);
+            }
+            if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+                throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+            }
+            if (minStock != null && maxStock != null && minStock > maxStock) {
+                throw new IllegalArgumentException("minStock must not be greater than maxStock");
+            }
+            return new Bounds(minPrice, maxPrice, minStock, maxStock);
+        }
+        
+        public boolean isEmpty() {
+            return minPrice == null && maxPrice == null && minStock == null && maxStock == null;
+        }
+        
+        // The column to walk when no sort is given: the one the bounds narrow, price when both are bounded
+        public Column column() {
+            return minPrice == null && maxPrice == null && (minStock != null || maxStock != null) ? Column.STOCK : Column.PRICE;
+        }
+        
+        boolean contains(Product product) {
+            return product.getPrice() >= lowestPrice() && product.getPrice() <= highestPrice()
+                && product.getTotalItemsInStock() >= lowestStock() && product.getTotalItemsInStock() <= highestStock();
+        }
+        
+        private double lowestPrice() {
+            return minPrice == null ? Double.NEGATIVE_INFINITY : minPrice;
+        }
+        
+        private double highestPrice() {
+            return maxPrice == null ? Double.POSITIVE_INFINITY : maxPrice;
+        }
+        
+        private double lowestStock() {
+            return minStock == null ? Double.NEGATIVE_INFINITY : minStock;
+        }
+        
+        private double highestStock() {
+            return maxStock == null ? Double.POSITIVE_INFINITY : maxStock;
+        }
+    }
+    
+    private static class Index {
+        private final Map<Long, Product> products = new HashMap<>();
+        private final Map<Long, Partition> byCategory = new HashMap<>();
+        private final Partition all = new Partition();
+        
+        static Index of(Map<Long, Product> products) {
+            Index index = new Index();
+            index.products.putAll(products);
+            Map<Long, List<Product>> grouped = new HashMap<>();
+            for (Product product : products.values()) {
+                grouped.computeIfAbsent(product.getCategory().getId(), id -> new ArrayList<>()).add(product);
+            }
+            index.all.load(products.values());
+            grouped.forEach((categoryId, members) -> {
+                Partition partition = new Partition();
+                partition.load(members);
+                index.byCategory.put(categoryId, partition);
+            });
+            return index;
+        }
+        
+        void put(Product product) {
+            Product previous = products.put(product.getId(), product);
+            if (previous != null && previous.getCategory().getId().equals(product.getCategory().getId())) {
+                all.move(previous, product);
+                byCategory.get(product.getCategory().getId()).move(previous, product);
+                return;
+            }
+            if (previous != null) {
+                all.remove(previous);
+                removeFromCategory(previous);
+            }
+            all.add(product);
+            byCategory.computeIfAbsent(product.getCategory().getId(), id -> new Partition()).add(product);
+        }
+        
+        void remove(Long id) {
+            Product previous = products.remove(id);
+            if (previous != null) {
+                all.remove(previous);
+                removeFromCategory(previous);
+            }
+        }
+        
+        private void removeFromCategory(Product product) {
+            Partition partition = byCategory.get(product.getCategory().getId());
+            partition.remove(product);
+            if (partition.prices.size == 0) {
+                byCategory.remove(product.getCategory().getId());
+            }
+        }
+    }
+    
+    private static class Partition {
+        private final SortedColumn prices = new SortedColumn();
+        private final SortedColumn stocks = new SortedColumn();
+        
+        void load(Iterable<Product> products) {
+            for (Product product : products) {
+                prices.append(product.getPrice(), product.getId());
+                stocks.append(product.getTotalItemsInStock(), product.getId());
+            }
+            prices.sort();
+            stocks.sort();
+        }
+        
+        void add(Product product) {
+            prices.insert(product.getPrice(), product.getId());
+            stocks.insert(product.getTotalItemsInStock(), product.getId());
+        }
+        
+        void remove(Product product) {
+            prices.remove(product.getPrice(), product.getId());
+            stocks.remove(product.getTotalItemsInStock(), product.getId());
+        }
+        
+        void move(Product previous, Product next) {
+            prices.move(previous.getPrice(), next.getPrice(), next.getId());
+            stocks.move(previous.getTotalItemsInStock(), next.getTotalItemsInStock(), next.getId());
+        }
+    }
+    
+    // Parallel arrays ordered by (key, id); stock values are exact in a double
+    private static class SortedColumn {
+        private double[] keys = new double[16];
+        private long[] ids = new long[16];
+        private int size;
+        
+        // First position whose (key, id) is not less than the given pair
+        int position(double key, long id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] < key || (keys[mid] == key && ids[mid] < id)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+        
+        void append(double key, long id) {
+            ensureCapacity(size + 1);
+            keys[size] = key;
+            ids[size] = id;
+            size++;
+        }
+        
+        void sort() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> keys[a] != keys[b] ? Double.compare(keys[a], keys[b]) : Long.compare(ids[a], ids[b]));
+            double[] sortedKeys = new double[keys.length];
+            long[] sortedIds = new long[ids.length];
+            for (int i = 0; i < size; i++) {
+                sortedKeys[i] = keys[order[i]];
+                sortedIds[i] = ids[order[i]];
+            }
+            keys = sortedKeys;
+            ids = sortedIds;
+        }
+        
+        void insert(double key, long id) {
+            ensureCapacity(size + 1);
+            int at = position(key, id);
+            System.arraycopy(keys, at, keys, at + 1, size - at);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            keys[at] = key;
+            ids[at] = id;
+            size++;
+        }
+        
+        void remove(double key, long id) {
+            int at = position(key, id);
+            if (at < size && ids[at] == id) {
+                System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+                System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+                size--;
+            }
+        }
+        
+        // Shifts only the entries between the old and the new position
+        void move(double from, double to, long id) {
+            int at = position(from, id);
+            if (at >= size || ids[at] != id) {
+                insert(to, id);
+                return;
+            }
+            int target = position(to, id);
+            if (target > at) {
+                target--;
+                System.arraycopy(keys, at + 1, keys, at, target - at);
+                System.arraycopy(ids, at + 1, ids, at, target - at);
+            } else {
+                System.arraycopy(keys, target, keys, target + 1, at - target);
+                System.arraycopy(ids, target, ids, target + 1, at - target);
+            }
+            keys[target] = to;
+            ids[target] = id;
+        }
+        
+        private void ensureCapacity(int capacity) {
+            if (capacity > keys.length) {
+                int grown = Math.max(capacity, keys.length * 2);
+                keys = Arrays.copyOf(keys, grown);
+                ids = Arrays.copyOf(ids, grown);
+            }
+        }
+    }
+}
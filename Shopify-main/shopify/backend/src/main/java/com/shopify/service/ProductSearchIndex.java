@@ -0,0 +1,382 @@
+package com.shopify.service;
+
+import com.shopify.dto.CategoryDTO;
+import com.shopify.dto.ProductSearchResultDTO;
+import com.shopify.entity.Category;
+import com.shopify.entity.Product;
+import com.shopify.event.ProductChangedEvent;
+import com.shopify.event.ProductsImportedEvent;
+import com.shopify.event.StockChangedEvent;
+import com.shopify.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// In-memory inverted index over product names and category names. Terms live in a sorted map so every
+// query token matches as a prefix with a single range scan, which also serves autocomplete. Kept current
+// from committed product events; the periodic rebuild picks up anything the events missed.
+@Service
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+    
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+    private static final int MAX_QUERY_LENGTH = 200;
+    
+    private static final double EXACT_TERM_WEIGHT = 1.0;
+    private static final double PREFIX_TERM_WEIGHT = 0.6;
+    private static final double CATEGORY_WEIGHT = 0.5;
+    private static final double LEADING_TOKEN_BONUS = 0.25;
+    
+    private static final Comparator<Scored> BEST_FIRST = Comparator
+        .comparingDouble(Scored::score).reversed()
+        .thenComparingInt(s -> s.doc.name.length())
+        .thenComparingLong(s -> s.doc.id);
+    
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private Index index = new Index();
+    private final Set<Long> touchedDuringRebuild = new HashSet<>();
+    private boolean rebuilding;
+    // Startup, imports and the schedule can all ask for a rebuild; they share the touched set above, so they
+    // run one at a time. A rebuild that waited still runs, since the one before it may predate its import.
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    
+    public ProductSearchResultDTO search(String query, Long categoryId, Integer limit) {
+        int max = limit == null ? DEFAULT_LIMIT : limit;
+        if (max < 1 || max > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (query == null || query.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("q must be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("q must contain at least one letter or digit");
+        }
+        
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> matches = index.match(tokens);
+            
+            Map<Long, long[]> facetCounts = new HashMap<>();
+            Map<Long, Category> facetCategories = new HashMap<>();
+            PriorityQueue<Scored> top = new PriorityQueue<>(BEST_FIRST.reversed());
+            long total = 0;
+            for (Map.Entry<Long, Double> match : matches.entrySet()) {
+                Doc doc = index.docs.get(match.getKey());
+                Long docCategoryId = doc.category.getId();
+                facetCounts.computeIfAbsent(docCategoryId, id -> new long[1])[0]++;
+                facetCategories.putIfAbsent(docCategoryId, doc.category);
+                if (categoryId != null && !categoryId.equals(docCategoryId)) {
+                    continue;
+                }
+                
+                total++;
+                double score = match.getValue();
+                if (doc.normalizedName.startsWith(tokens.get(0))) {
+                    score += LEADING_TOKEN_BONUS;
+                }
+                top.add(new Scored(doc, score));
+                if (top.size() > max) {
+                    top.poll();
+                }
+            }
+            
+            List<Scored> ranked = new ArrayList<>(top);
+            ranked.sort(BEST_FIRST);
+            List<ProductSearchResultDTO.Hit> hits = ranked.stream()
+                .map(s -> new ProductSearchResultDTO.Hit(s.doc.id, s.doc.name, s.doc.price, s.doc.stock,
+                                                         s.doc.imageUrl, CategoryDTO.from(s.doc.category), round(s.score)))
+                .toList();
+            List<ProductSearchResultDTO.CategoryFacet> facets = facetCounts.entrySet().stream()
+                .map(e -> new ProductSearchResultDTO.CategoryFacet(e.getKey(), facetCategories.get(e.getKey()).getName(), e.getValue()[0]))
+                .sorted(Comparator.comparingLong(ProductSearchResultDTO.CategoryFacet::getCount).reversed()
+                    .thenComparing(ProductSearchResultDTO.CategoryFacet::getName))
+                .toList();
+            return new ProductSearchResultDTO(query, total, hits, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.isDeleted()) {
+                index.remove(event.getProductId());
+            } else {
+                index.put(Doc.of(event.getProduct()));
+            }
+            touch(event.getProductId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            Doc current = index.docs.get(event.getProductId());
+            if (current != null) {
+                index.docs.put(current.id, current.withStock(event.getRemainingStock()));
+                touch(current.id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        rebuild();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+    
+    @Scheduled(fixedDelayString = "${shopify.search.rebuild-interval-ms:600000}",
+               initialDelayString = "${shopify.search.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuildExclusively();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+    
+    private void rebuildExclusively() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringRebuild.clear();
+            rebuilding = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        try {
+            // Built outside the lock so searches keep using the current index meanwhile
+            Index fresh = new Index();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Product> products = productRepository.streamAllByOrderByIdAsc()) {
+                    products.forEach(product -> fresh.put(Doc.of(product)));
+                }
+            });
+            
+            lock.writeLock().lock();
+            try {
+                // Products written while the rebuild ran keep their event-driven state
+                for (Long id : touchedDuringRebuild) {
+                    fresh.remove(id);
+                    Doc current = index.docs.get(id);
+                    if (current != null) {
+                        fresh.put(current);
+                    }
+                }
+                index = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                touchedDuringRebuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+    
+    private void touch(Long id) {
+        if (rebuilding) {
+            touchedDuringRebuild.add(id);
+        }
+    }
+    
+    // Lower-cased, accents stripped, split on anything that is not a letter or digit
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        String normalized = normalize(text);
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : normalized.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return List.copyOf(tokens);
+    }
+    
+    private static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFD)
+            .replaceAll("\\p{M}+", "")
+            .toLowerCase(Locale.ROOT);
+    }
+    
+    private static double round(double score) {
+        return Math.round(score * 1000) / 1000.0;
+    }
+    
+    private static class Index {
+        private final Map<Long, Doc> docs = new HashMap<>();
+        private final NavigableMap<String, Set<Long>> nameTerms = new TreeMap<>();
+        private final NavigableMap<String, Set<Long>> categoryTerms = new TreeMap<>();
+        private final Map<Long, Set<Long>> docsByCategory = new HashMap<>();
+        
+        void put(Doc doc) {
+            remove(doc.id);
+            docs.put(doc.id, doc);
+            for (String term : doc.nameTokens) {
+                nameTerms.computeIfAbsent(term, t -> new HashSet<>()).add(doc.id);
+            }
+            Long categoryId = doc.category.getId();
+            for (String term : tokenize(doc.category.getName())) {
+                categoryTerms.computeIfAbsent(term, t -> new HashSet<>()).add(categoryId);
+            }
+            docsByCategory.computeIfAbsent(categoryId, id -> new HashSet<>()).add(doc.id);
+        }
+        
+        void remove(Long id) {
+            Doc doc = docs.remove(id);
+            if (doc == null) {
+                return;
+            }
+            for (String term : doc.nameTokens) {
+                unlink(nameTerms, term, id);
+            }
+            Long categoryId = doc.category.getId();
+            Set<Long> categoryDocs = docsByCategory.get(categoryId);
+            categoryDocs.remove(id);
+            if (categoryDocs.isEmpty()) {
+                docsByCategory.remove(categoryId);
+                for (String term : tokenize(doc.category.getName())) {
+                    unlink(categoryTerms, term, categoryId);
+                }
+            }
+        }
+        
+        // Every token has to match (as a prefix of a name or category term); scores add up across tokens
+        Map<Long, Double> match(List<String> tokens) {
+            Map<Long, Double> result = null;
+            for (String token : tokens) {
+                Map<Long, Double> tokenScores = matchToken(token);
+                if (result == null) {
+                    result = tokenScores;
+                } else {
+                    Map<Long, Double> smaller = result.size() <= tokenScores.size() ? result : tokenScores;
+                    Map<Long, Double> larger = smaller == result ? tokenScores : result;
+                    Map<Long, Double> both = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : smaller.entrySet()) {
+                        Double other = larger.get(entry.getKey());
+                        if (other != null) {
+                            both.put(entry.getKey(), entry.getValue() + other);
+                        }
+                    }
+                    result = both;
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result;
+        }
+        
+        // A document scores the best of its matching terms; rarer terms weigh more
+        private Map<Long, Double> matchToken(String token) {
+            Map<Long, Double> scores = new HashMap<>();
+            for (Map.Entry<String, Set<Long>> term : prefixRange(nameTerms, token).entrySet()) {
+                double weight = (term.getKey().equals(token) ? EXACT_TERM_WEIGHT : PREFIX_TERM_WEIGHT)
+                    * idf(term.getValue().size());
+                for (Long id : term.getValue()) {
+                    scores.merge(id, weight, Math::max);
+                }
+            }
+            for (Map.Entry<String, Set<Long>> term : prefixRange(categoryTerms, token).entrySet()) {
+                for (Long categoryId : term.getValue()) {
+                    Set<Long> categoryDocs = docsByCategory.get(categoryId);
+                    double weight = CATEGORY_WEIGHT
+                        * (term.getKey().equals(token) ? EXACT_TERM_WEIGHT : PREFIX_TERM_WEIGHT)
+                        * idf(categoryDocs.size());
+                    for (Long id : categoryDocs) {
+                        scores.merge(id, weight, Math::max);
+                    }
+                }
+            }
+            return scores;
+        }
+        
+        private double idf(int documentFrequency) {
+            return Math.log(1 + (double) docs.size() / documentFrequency);
+        }
+        
+        private static NavigableMap<String, Set<Long>> prefixRange(NavigableMap<String, Set<Long>> terms, String prefix) {
+            return terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        }
+        
+        private static void unlink(Map<String, Set<Long>> terms, String term, Long id) {
+            Set<Long> ids = terms.get(term);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    terms.remove(term);
+                }
+            }
+        }
+    }
+    
+    private record Doc(Long id, String name, String normalizedName, double price, int stock, String imageUrl,
+                       Category category, List<String> nameTokens) {
+        static Doc of(Product product) {
+            return new Doc(product.getId(), product.getName(), normalize(product.getName()), product.getPrice(),
+                           product.getTotalItemsInStock(), product.getImageUrl(), product.getCategory(),
+                           tokenize(product.getName()));
+        }
+        
+        Doc withStock(int stock) {
+            return new Doc(id, name, normalizedName, price, stock, imageUrl, category, nameTokens);
+        }
+    }
+    
+    private record Scored(Doc doc, double score) {
+    }
+}
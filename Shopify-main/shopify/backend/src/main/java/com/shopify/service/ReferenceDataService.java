@@ -0,0 +1,134 @@
+package com.shopify.service;
+
+import com.shopify.entity.Category;
+import com.shopify.entity.PaymentMode;
+import com.shopify.event.ReferenceDataChangedEvent;
+import com.shopify.repository.CategoryRepository;
+import com.shopify.repository.PaymentModeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Immutable, in-memory copy of the payment mode and category tables. Readers never query; writers
+// publish ReferenceDataChangedEvent and the whole snapshot is rebuilt and swapped after commit.
+// The entities held here are shared, so callers must treat them as read-only.
+@Service
+@RequiredArgsConstructor
+public class ReferenceDataService {
+    
+    private final PaymentModeRepository paymentModeRepository;
+    private final CategoryRepository categoryRepository;
+    
+    // A lock rather than synchronized: refresh queries the database while holding it, which would pin
+    // the carrier thread when requests run on virtual threads
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+    
+    public List<PaymentMode> getPaymentModes() {
+        return current().paymentModes();
+    }
+    
+    public List<PaymentMode> getActivePaymentModes() {
+        return current().activePaymentModes();
+    }
+    
+    public Optional<PaymentMode> getPaymentMode(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(current().paymentModesById().get(id));
+    }
+    
+    public Optional<PaymentMode> getPaymentModeByName(String mode) {
+        return mode == null ? Optional.empty() : Optional.ofNullable(current().paymentModesByName().get(mode));
+    }
+    
+    public List<Category> getCategories() {
+        return current().categories();
+    }
+    
+    public Optional<Category> getCategory(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(current().categoriesById().get(id));
+    }
+    
+    public Optional<Category> getCategoryByName(String name) {
+        return name == null ? Optional.empty() : Optional.ofNullable(current().categoriesByName().get(name));
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        refresh();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        refresh();
+    }
+    
+    // Serialized so an older read can never be swapped in over a newer one
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            List<PaymentMode> paymentModes = paymentModeRepository.findAll().stream()
+                .sorted(Comparator.comparing(PaymentMode::getId))
+                .toList();
+            List<Category> categories = categoryRepository.findAll().stream()
+                .sorted(Comparator.comparing(Category::getId))
+                .toList();
+            
+            snapshot = new Snapshot(
+                paymentModes,
+                paymentModes.stream().filter(PaymentMode::getIsActive).toList(),
+                paymentModes.stream().collect(Collectors.toUnmodifiableMap(PaymentMode::getId, Function.identity())),
+                paymentModes.stream().collect(Collectors.toUnmodifiableMap(PaymentMode::getMode, Function.identity())),
+                categories,
+                categories.stream().collect(Collectors.toUnmodifiableMap(Category::getId, Function.identity())),
+                categories.stream().collect(Collectors.toUnmodifiableMap(Category::getName, Function.identity()))
+            );
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+    
+    // Picks up changes made by other instances or directly in the database
+    @Scheduled(fixedDelayString = "${shopify.reference-data.refresh-interval-ms:300000}",
+               initialDelayString = "${shopify.reference-data.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+    
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            refreshLock.lock();
+            try {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+        return current;
+    }
+    
+    private record Snapshot(
+        List<PaymentMode> paymentModes,
+        List<PaymentMode> activePaymentModes,
+        Map<Long, PaymentMode> paymentModesById,
+        Map<String, PaymentMode> paymentModesByName,
+        List<Category> categories,
+        Map<Long, Category> categoriesById,
+        Map<String, Category> categoriesByName
+    ) {
+    }
+}
@@ -0,0 +1,158 @@
+package com.shopify.service;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.shopify.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Bloom filter over every stored transaction id. A negative answer is definite, so lookups and duplicate
+// checks for ids that were never seen skip the database entirely; a positive answer is confirmed with the
+// unique index. Ids are added when a payment is built, before it commits: a rolled-back payment only costs
+// a false positive, never a false negative. Payments written by other instances are picked up by a short
+// poll for payments dated since the last one.
+@Service
+public class TransactionIdFilter {
+    
+    private final PaymentRepository paymentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long minimumCapacity;
+    private final double falsePositiveRate;
+    private final Duration pollOverlap;
+    private final Counter filtered;
+    private final Counter passed;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    
+    // Until the first build completes every id is passed through to the database
+    private volatile BloomFilter<CharSequence> filter;
+    // Guarded by this: ids added while a rebuild streams the table, replayed into the new filter
+    private List<String> addedDuringRebuild;
+    // Guarded by rebuildLock: when the last build or poll started reading
+    private LocalDateTime lastPolled;
+    
+    public TransactionIdFilter(PaymentRepository paymentRepository,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${shopify.payments.transaction-filter.capacity:1000000}") long minimumCapacity,
+                               @Value("${shopify.payments.transaction-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                               @Value("${shopify.payments.transaction-filter.poll-overlap:2m}") Duration pollOverlap) {
+        this.paymentRepository = paymentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.minimumCapacity = minimumCapacity;
+        this.falsePositiveRate = falsePositiveRate;
+        this.pollOverlap = pollOverlap;
+        this.filtered = Counter.builder("shopify.payments.transaction_filter")
+            .description("Transaction id probes answered by the Bloom filter (filtered) or passed to the database")
+            .tag("result", "filtered")
+            .register(meterRegistry);
+        this.passed = Counter.builder("shopify.payments.transaction_filter")
+            .description("Transaction id probes answered by the Bloom filter (filtered) or passed to the database")
+            .tag("result", "passed")
+            .register(meterRegistry);
+        Gauge.builder("shopify.payments.transaction_filter.expected_fpp", this, TransactionIdFilter::expectedFalsePositiveRate)
+            .description("Current expected false positive rate of the transaction id filter")
+            .register(meterRegistry);
+    }
+    
+    // false means no payment with this id exists
+    public boolean mightExist(String transactionId) {
+        BloomFilter<CharSequence> current = filter;
+        if (current == null || current.mightContain(transactionId)) {
+            passed.increment();
+            return true;
+        }
+        filtered.increment();
+        return false;
+    }
+    
+    public synchronized void add(String transactionId) {
+        if (filter != null) {
+            filter.put(transactionId);
+        }
+        if (addedDuringRebuild != null) {
+            addedDuringRebuild.add(transactionId);
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+    
+    // Resizes for growth and drops ids of deleted or rolled-back payments
+    @Scheduled(fixedDelayString = "${shopify.payments.transaction-filter.rebuild-interval-ms:3600000}",
+               initialDelayString = "${shopify.payments.transaction-filter.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            synchronized (this) {
+                addedDuringRebuild = new ArrayList<>();
+            }
+            
+            BloomFilter<CharSequence> fresh = transactionTemplate.execute(status -> {
+                lastPolled = LocalDateTime.now();
+                long capacity = Math.max(minimumCapacity, 2 * paymentRepository.countAllTransactionIds());
+                BloomFilter<CharSequence> built = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), capacity, falsePositiveRate);
+                try (Stream<String> ids = paymentRepository.streamAllTransactionIds()) {
+                    ids.forEach(built::put);
+                }
+                return built;
+            });
+            
+            synchronized (this) {
+                addedDuringRebuild.forEach(fresh::put);
+                filter = fresh;
+            }
+        } finally {
+            synchronized (this) {
+                addedDuringRebuild = null;
+            }
+            rebuildLock.unlock();
+        }
+    }
+    
+    // Takes in ids written since the last poll, including by other instances. A payment is dated when it is
+    // built and becomes visible when its transaction commits, on whichever instance's clock, so each poll reads
+    // back poll-overlap before the previous one started: longer than any payment transaction plus the clock
+    // skew between instances. Ids are not usable for this, since each instance holds its own pooled sequence
+    // block and may commit ids far below the others' for hours. Skipped while a rebuild runs, which reads
+    // everything anyway.
+    @Scheduled(fixedDelayString = "${shopify.payments.transaction-filter.poll-interval-ms:5000}",
+               initialDelayString = "${shopify.payments.transaction-filter.poll-interval-ms:5000}")
+    public void poll() {
+        if (filter == null || !rebuildLock.tryLock()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime started = LocalDateTime.now();
+                try (Stream<String> ids = paymentRepository.streamTransactionIdsDatedFrom(lastPolled.minus(pollOverlap))) {
+                    ids.forEach(this::add);
+                }
+                lastPolled = started;
+            });
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+    
+    private double expectedFalsePositiveRate() {
+        BloomFilter<CharSequence> current = filter;
+        return current == null ? 1.0 : current.expectedFpp();
+    }
+}
@@ -0,0 +1,67 @@
+-- Schema as the entities map it. Ids come from the <table>_id_seq sequences, 50 at a time (allocationSize);
+-- the defaults let rows inserted outside Hibernate (bulk import) take theirs from the same sequence.
+-- The seeded tables start at 101: Hibernate's first pooled block is then 52..101, leaving ids 1..51 to the
+-- rows of V2__seed_data.sql.
+
+CREATE SEQUENCE categories_id_seq START WITH 101 INCREMENT BY 50;
+CREATE SEQUENCE payment_modes_id_seq START WITH 101 INCREMENT BY 50;
+CREATE SEQUENCE payments_id_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE products_id_seq START WITH 101 INCREMENT BY 50;
+
+CREATE TABLE categories (
+    id bigint NOT NULL DEFAULT nextval('categories_id_seq'),
+    name varchar(255) NOT NULL,
+    CONSTRAINT categories_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_categories_name UNIQUE (name)
+);
+
+CREATE TABLE payment_modes (
+    id bigint NOT NULL DEFAULT nextval('payment_modes_id_seq'),
+    mode varchar(255) NOT NULL,
+    is_active boolean NOT NULL,
+    CONSTRAINT payment_modes_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_payment_modes_mode UNIQUE (mode)
+);
+
+CREATE TABLE products (
+    id bigint NOT NULL DEFAULT nextval('products_id_seq'),
+    name varchar(255) NOT NULL,
+    price float(53) NOT NULL,
+    total_items_in_stock integer NOT NULL,
+    image_url varchar(1000),
+    category_id bigint NOT NULL,
+    CONSTRAINT products_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_products_category FOREIGN KEY (category_id) REFERENCES categories (id)
+);
+
+CREATE TABLE payments (
+    id bigint NOT NULL DEFAULT nextval('payments_id_seq'),
+    payment_date timestamp(6) NOT NULL,
+    payment_mode_id bigint NOT NULL,
+    transaction_id varchar(255),
+    amount numeric(10, 2) NOT NULL,
+    status varchar(255) NOT NULL CHECK (status IN ('PENDING', 'COMPLETED', 'FAILED', 'REFUNDED')),
+    remarks varchar(500),
+    CONSTRAINT payments_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_payments_transaction_id UNIQUE (transaction_id),
+    CONSTRAINT fk_payments_payment_mode FOREIGN KEY (payment_mode_id) REFERENCES payment_modes (id)
+);
+
+CREATE INDEX idx_payments_payment_date ON payments (payment_date);
+CREATE INDEX idx_payments_status_payment_date ON payments (status, payment_date);
+
+CREATE TABLE payments_archive (
+    id bigint NOT NULL,
+    payment_date timestamp(6) NOT NULL,
+    payment_mode_id bigint NOT NULL,
+    transaction_id varchar(255),
+    amount numeric(10, 2) NOT NULL,
+    status varchar(255) NOT NULL CHECK (status IN ('PENDING', 'COMPLETED', 'FAILED', 'REFUNDED')),
+    remarks varchar(500),
+    archived_at timestamp(6) NOT NULL,
+    CONSTRAINT payments_archive_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_payments_archive_payment_mode FOREIGN KEY (payment_mode_id) REFERENCES payment_modes (id)
+);
+
+CREATE INDEX idx_payments_archive_payment_date ON payments_archive (payment_date);
+CREATE INDEX idx_payments_archive_transaction_id ON payments_archive (transaction_id);
@@ -0,0 +1,26 @@
+-- Sample catalog and payment modes (what DataLoader creates under ddl-auto). Each statement only runs on an
+-- empty table, so a database baselined from an existing installation keeps its own rows. The rows take
+-- ids 1..n as DataLoader's do, below the first ids Hibernate hands out (see the sequences in V1).
+
+INSERT INTO categories (id, name)
+SELECT id, name
+FROM (VALUES (1, 'Food'), (2, 'Mobiles'), (3, 'Electronics'), (4, 'Stationery')) AS seed (id, name)
+WHERE NOT EXISTS (SELECT 1 FROM categories);
+
+-- Prices in INR
+INSERT INTO products (id, name, price, total_items_in_stock, image_url, category_id)
+SELECT seed.id, seed.name, seed.price, seed.stock, seed.image_url, c.id
+FROM (VALUES
+    (1, 'Organic Apple', 299.00, 150, 'https://images.unsplash.com/photo-1568702846914-96b305d2aaeb?w=400', 'Food'),
+    (2, 'iPhone 15 Pro', 134900.00, 50, 'https://images.unsplash.com/photo-1678652197950-32d529427814?w=400', 'Mobiles'),
+    (3, 'Sony Headphones', 24999.00, 75, 'https://images.unsplash.com/photo-1505740420928-5e560c06d30e?w=400', 'Electronics'),
+    (4, 'Notebook Set', 899.00, 200, 'https://images.unsplash.com/photo-1544816155-12df9643f363?w=400', 'Stationery')
+) AS seed (id, name, price, stock, image_url, category)
+JOIN categories c ON c.name = seed.category
+WHERE NOT EXISTS (SELECT 1 FROM products);
+
+INSERT INTO payment_modes (id, mode, is_active)
+SELECT id, mode, true
+FROM (VALUES (1, 'Cash On Delivery'), (2, 'UPI'), (3, 'Debit/Credit Card'), (4, 'Net Banking'), (5, 'Wallet'))
+    AS seed (id, mode)
+WHERE NOT EXISTS (SELECT 1 FROM payment_modes);
@@ -0,0 +1,102 @@
+-- Converts payments into a table range-partitioned by payment_date, one partition per month, so queries
+-- with a date predicate only read the months they cover and old months can be dropped once archived.
+-- Requires PostgreSQL 14+ (the application detaches emptied partitions CONCURRENTLY). Not one of the regular
+-- migrations: Flyway only runs it with shopify.payments.partitioning.enabled=true (FlywayConfig), in one
+-- transaction that rewrites the whole table, so schedule that start. Outside Flyway:
+-- psql --single-transaction -f V3__partition_payments.sql
+--
+-- Databases that predate the unique index on transaction_id need database/payments_transaction_id_unique.sql
+-- first: duplicate transaction ids make the payment_transaction_ids load below fail. payments_archive comes
+-- from V1 (or ddl-auto on a baselined database).
+--
+-- Afterwards the application (PaymentArchiveService) creates upcoming partitions
+-- (shopify.payments.partitions.months-ahead), moves terminal payments older than
+-- shopify.payments.archive.after to payments_archive, and drops months left empty.
+
+LOCK TABLE public.payments IN ACCESS EXCLUSIVE MODE;
+
+-- Ids keep coming from payments_id_seq. It is re-created as a standalone sequence (an identity column owns
+-- its sequence, and the old table is dropped below) and set past every id that may already be handed out.
+DO $$
+DECLARE
+    next_id bigint;
+BEGIN
+    SELECT GREATEST(COALESCE(MAX(id), 0), nextval('public.payments_id_seq')) + 50 INTO next_id FROM public.payments;
+    ALTER TABLE public.payments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+    CREATE SEQUENCE IF NOT EXISTS public.payments_id_seq;
+    ALTER SEQUENCE public.payments_id_seq INCREMENT BY 50 OWNED BY NONE;
+    PERFORM setval('public.payments_id_seq', next_id, false);
+END $$;
+
+ALTER TABLE public.payments RENAME TO payments_unpartitioned;
+ALTER TABLE public.payments_unpartitioned DROP CONSTRAINT IF EXISTS uk_payments_transaction_id;
+ALTER INDEX IF EXISTS public.payments_pkey RENAME TO payments_unpartitioned_pkey;
+DROP INDEX IF EXISTS public.idx_payments_payment_date;
+DROP INDEX IF EXISTS public.idx_payments_status_payment_date;
+
+-- The primary key has to include the partition key
+CREATE TABLE public.payments (
+    id bigint NOT NULL DEFAULT nextval('public.payments_id_seq'),
+    payment_date timestamp(6) NOT NULL,
+    payment_mode_id bigint NOT NULL REFERENCES public.payment_modes (id),
+    transaction_id varchar(255),
+    amount numeric(10, 2) NOT NULL,
+    status varchar(255) NOT NULL CHECK (status IN ('PENDING', 'COMPLETED', 'FAILED', 'REFUNDED')),
+    remarks varchar(500),
+    CONSTRAINT payments_pkey PRIMARY KEY (id, payment_date)
+) PARTITION BY RANGE (payment_date);
+
+CREATE INDEX idx_payments_payment_date ON public.payments (payment_date);
+CREATE INDEX idx_payments_status_payment_date ON public.payments (status, payment_date);
+CREATE INDEX idx_payments_transaction_id ON public.payments (transaction_id);
+
+-- Monthly partitions from the oldest payment through three months ahead, named payments_pYYYYMM
+DO $$
+DECLARE
+    month timestamp;
+    last_month timestamp;
+BEGIN
+    SELECT date_trunc('month', COALESCE(MIN(payment_date), now())),
+           date_trunc('month', GREATEST(COALESCE(MAX(payment_date), now()), now() + interval '3 months'))
+      INTO month, last_month
+      FROM public.payments_unpartitioned;
+    WHILE month <= last_month LOOP
+        EXECUTE format('CREATE TABLE public.%I PARTITION OF public.payments FOR VALUES FROM (%L) TO (%L)',
+                       'payments_p' || to_char(month, 'YYYYMM'), month::date, (month + interval '1 month')::date);
+        month := month + interval '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO public.payments (id, payment_date, payment_mode_id, transaction_id, amount, status, remarks)
+SELECT id, payment_date, payment_mode_id, transaction_id, amount, status, remarks
+FROM public.payments_unpartitioned;
+
+DROP TABLE public.payments_unpartitioned;
+
+-- A unique index on a partitioned table must contain the partition key, so transaction id uniqueness moves
+-- to this table. Its key keeps the constraint name the application looks for (uk_payments_transaction_id),
+-- and it also covers archived payments, which keep their row here.
+CREATE TABLE public.payment_transaction_ids (
+    transaction_id varchar(255) NOT NULL CONSTRAINT uk_payments_transaction_id PRIMARY KEY,
+    payment_id bigint NOT NULL,
+    payment_date timestamp(6) NOT NULL
+);
+
+INSERT INTO public.payment_transaction_ids (transaction_id, payment_id, payment_date)
+SELECT transaction_id, id, payment_date FROM public.payments WHERE transaction_id IS NOT NULL
+UNION ALL
+SELECT transaction_id, id, payment_date FROM public.payments_archive WHERE transaction_id IS NOT NULL;
+
+CREATE FUNCTION public.register_payment_transaction_id() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    INSERT INTO public.payment_transaction_ids (transaction_id, payment_id, payment_date)
+    VALUES (NEW.transaction_id, NEW.id, NEW.payment_date);
+    RETURN NEW;
+END $$;
+
+CREATE TRIGGER payments_register_transaction_id
+    AFTER INSERT ON public.payments
+    FOR EACH ROW WHEN (NEW.transaction_id IS NOT NULL)
+    EXECUTE FUNCTION public.register_payment_transaction_id();
+
+ANALYZE public.payments;
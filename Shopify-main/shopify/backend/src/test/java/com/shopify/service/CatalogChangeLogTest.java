@@ -0,0 +1,61 @@
+package com.shopify.service;
+
+import com.shopify.dto.ProductChangesDTO;
+import com.shopify.event.ProductChangedEvent;
+import com.shopify.event.StockChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogChangeLogTest {
+    
+    private final ProductCacheService productCacheService = mock(ProductCacheService.class);
+    
+    CatalogChangeLogTest() {
+        when(productCacheService.getAllProducts()).thenReturn(new ProductCacheService.Cached<>(List.of(), "\"etag\""));
+    }
+    
+    @Test
+    void returnsOnlyChangesAfterTheGivenVersion() {
+        CatalogChangeLog log = new CatalogChangeLog(productCacheService, 100);
+        log.onStockChanged(new StockChangedEvent(1L, 5));
+        String version = log.changesSince(null).getVersion();
+        log.onStockChanged(new StockChangedEvent(2L, 7));
+        log.onProductChanged(new ProductChangedEvent(3L, null));
+        
+        ProductChangesDTO changes = log.changesSince(version);
+        
+        assertThat(changes.isSnapshot()).isFalse();
+        assertThat(changes.getStock()).extracting(ProductChangesDTO.StockLevel::getId).containsExactly(2L);
+        assertThat(changes.getDeleted()).containsExactly(3L);
+        assertThat(log.changesSince(changes.getVersion()).getStock()).isEmpty();
+    }
+    
+    @Test
+    void answersTokensFromAnotherInstanceWithASnapshot() {
+        CatalogChangeLog first = new CatalogChangeLog(productCacheService, 100);
+        CatalogChangeLog second = new CatalogChangeLog(productCacheService, 100);
+        second.onStockChanged(new StockChangedEvent(1L, 5));
+        String foreign = second.changesSince(null).getVersion();
+        first.onStockChanged(new StockChangedEvent(2L, 7));
+        first.onStockChanged(new StockChangedEvent(3L, 9));
+        
+        assertThat(first.changesSince(foreign).isSnapshot()).isTrue();
+        assertThat(first.changesSince("not-a-version").isSnapshot()).isTrue();
+    }
+    
+    @Test
+    void answersVersionsOlderThanTheLogWithASnapshot() {
+        CatalogChangeLog log = new CatalogChangeLog(productCacheService, 2);
+        String version = log.changesSince(null).getVersion();
+        log.onStockChanged(new StockChangedEvent(1L, 5));
+        log.onStockChanged(new StockChangedEvent(2L, 7));
+        log.onStockChanged(new StockChangedEvent(3L, 9));
+        
+        assertThat(log.changesSince(version).isSnapshot()).isTrue();
+    }
+}
@@ -0,0 +1,77 @@
+package com.shopify.service;
+
+import com.shopify.dto.CheckoutItemDTO;
+import com.shopify.dto.CheckoutRequestDTO;
+import com.shopify.dto.ProductStockView;
+import com.shopify.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CheckoutServiceTest {
+    
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final PaymentService paymentService = mock(PaymentService.class);
+    private final CheckoutService checkoutService =
+        new CheckoutService(productRepository, paymentService, mock(ApplicationEventPublisher.class));
+    
+    @Test
+    void rejectsDuplicateLinesWhoseQuantitiesOverflow() {
+        CheckoutRequestDTO request = request(new CheckoutItemDTO(1L, Integer.MAX_VALUE), new CheckoutItemDTO(1L, 2));
+        
+        assertThatThrownBy(() -> checkoutService.checkout(request))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("product id: 1");
+        verifyNoInteractions(productRepository, paymentService);
+    }
+    
+    @Test
+    void rejectsMergedQuantityAboveStock() {
+        when(productRepository.lockStockByIds(anyList())).thenReturn(List.of(stock(1L, 5)));
+        CheckoutRequestDTO request = request(new CheckoutItemDTO(1L, 3), new CheckoutItemDTO(1L, 3));
+        
+        assertThatThrownBy(() -> checkoutService.checkout(request))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("Insufficient stock");
+        verify(productRepository, never()).decrementStockBatch(anyList(), anyList());
+        verify(paymentService, never()).createPayment(any());
+    }
+    
+    private static CheckoutRequestDTO request(CheckoutItemDTO... items) {
+        return new CheckoutRequestDTO(1L, "TXN-1", null, List.of(items));
+    }
+    
+    private static ProductStockView stock(long id, int totalItemsInStock) {
+        return new ProductStockView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+            
+            @Override
+            public String getName() {
+                return "Product " + id;
+            }
+            
+            @Override
+            public double getPrice() {
+                return 10.0;
+            }
+            
+            @Override
+            public int getTotalItemsInStock() {
+                return totalItemsInStock;
+            }
+        };
+    }
+}
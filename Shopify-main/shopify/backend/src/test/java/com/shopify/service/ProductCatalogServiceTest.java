@@ -0,0 +1,99 @@
+package com.shopify.service;
+
+import com.shopify.dto.ProductDTO;
+import com.shopify.dto.ProductPageDTO;
+import com.shopify.entity.Category;
+import com.shopify.entity.Product;
+import com.shopify.event.ProductChangedEvent;
+import com.shopify.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductCatalogServiceTest {
+    
+    private static final Category FOOD = new Category(1L, "Food");
+    private static final ProductRangeIndex.Bounds UNBOUNDED = ProductRangeIndex.Bounds.of(null, null, null, null, null);
+    
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductRangeIndex productRangeIndex =
+        new ProductRangeIndex(productRepository, mock(TransactionTemplate.class));
+    private final ProductCatalogService catalogService = new ProductCatalogService(productRepository, productRangeIndex);
+    
+    @Test
+    void pagesThroughIndexedOrderWithCursors() {
+        double[] prices = {30.0, 10.0, 20.0, 20.0, 50.0, 20.0, 40.0};
+        for (int i = 0; i < prices.length; i++) {
+            put(i + 1L, "Product " + (i + 1), prices[i]);
+        }
+        
+        assertThat(collect("price", "desc", UNBOUNDED)).containsExactly(5L, 7L, 1L, 6L, 4L, 3L, 2L);
+        assertThat(collect("price", "asc", UNBOUNDED)).containsExactly(2L, 3L, 4L, 6L, 1L, 7L, 5L);
+        assertThat(collect(null, "desc", ProductRangeIndex.Bounds.of(15.0, 40.0, null, null, null)))
+            .containsExactly(7L, 1L, 6L, 4L, 3L);
+    }
+    
+    @Test
+    void rejectsCursorsForAnotherOrder() {
+        for (long id = 1; id <= 3; id++) {
+            put(id, "Product " + id, id * 10.0);
+        }
+        String cursor = catalogService.getProductPage("price", "asc", null, null, 1, UNBOUNDED, null).getNextCursor();
+        
+        assertThatThrownBy(() -> catalogService.getProductPage("price", "desc", null, cursor, 1, UNBOUNDED, null))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> catalogService.getProductPage("stock", "asc", null, cursor, 1, UNBOUNDED, null))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> catalogService.getProductPage("price", "asc", null, "not a cursor!", 1, UNBOUNDED, null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Malformed cursor");
+    }
+    
+    @Test
+    void roundTripsKeysetCursorsWithSeparatorsInTheValue() {
+        Product last = new Product(7L, "Lamp | Desk", 10.0, 1, null, FOOD);
+        when(productRepository.findBy(any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+            .thenReturn(Window.from(List.of(last), index -> ScrollPosition.offset(), true));
+        
+        String cursor = catalogService.getProductPage("name", "desc", null, null, 1, UNBOUNDED, null).getNextCursor();
+        catalogService.getProductPage("name", "desc", null, cursor, 1, UNBOUNDED, null);
+        
+        ArgumentCaptor<ScrollPosition> positions = ArgumentCaptor.forClass(ScrollPosition.class);
+        verify(productRepository, times(2)).findBy(positions.capture(), any(Sort.class), any(Limit.class));
+        KeysetScrollPosition resumed = (KeysetScrollPosition) positions.getAllValues().get(1);
+        assertThat(resumed.getKeys()).isEqualTo(Map.of("name", "Lamp | Desk", "id", 7L));
+    }
+    
+    private void put(long id, String name, double price) {
+        productRangeIndex.onProductChanged(new ProductChangedEvent(id, new Product(id, name, price, 5, null, FOOD)));
+    }
+    
+    // Ids of every page of the listing, following nextCursor two products at a time
+    private List<Long> collect(String sort, String direction, ProductRangeIndex.Bounds bounds) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            ProductPageDTO<?> page = catalogService.getProductPage(sort, direction, null, cursor, 2, bounds, null);
+            page.getItems().forEach(item -> ids.add(((ProductDTO) item).getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+}
@@ -0,0 +1,107 @@
+package com.shopify.service;
+
+import com.shopify.entity.Category;
+import com.shopify.entity.Product;
+import com.shopify.event.ProductChangedEvent;
+import com.shopify.event.StockChangedEvent;
+import com.shopify.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ProductRangeIndexTest {
+    
+    private static final Category FOOD = new Category(1L, "Food");
+    private static final Category MOBILES = new Category(2L, "Mobiles");
+    private static final ProductRangeIndex.Bounds UNBOUNDED = ProductRangeIndex.Bounds.of(null, null, null, null, null);
+    
+    private final ProductRangeIndex index =
+        new ProductRangeIndex(mock(ProductRepository.class), mock(TransactionTemplate.class));
+    
+    @Test
+    void keepsStockOrderWhenStockMovesUpAndDown() {
+        for (long id = 1; id <= 6; id++) {
+            put(id, 10.0, (int) id * 10, FOOD);
+        }
+        
+        index.onStockChanged(new StockChangedEvent(2L, 55));
+        index.onStockChanged(new StockChangedEvent(6L, 5));
+        index.onStockChanged(new StockChangedEvent(4L, 40));
+        
+        assertThat(ids(byStock(null, UNBOUNDED, false))).containsExactly(6L, 1L, 3L, 4L, 5L, 2L);
+        assertThat(ids(byStock(1L, UNBOUNDED, false))).containsExactly(6L, 1L, 3L, 4L, 5L, 2L);
+    }
+    
+    @Test
+    void ordersEqualValuesById() {
+        put(3L, 5.0, 7, FOOD);
+        put(1L, 5.0, 7, FOOD);
+        put(2L, 5.0, 9, FOOD);
+        index.onStockChanged(new StockChangedEvent(2L, 7));
+        
+        assertThat(ids(byStock(null, UNBOUNDED, false))).containsExactly(1L, 2L, 3L);
+        assertThat(ids(byStock(null, UNBOUNDED, true))).containsExactly(3L, 2L, 1L);
+    }
+    
+    @Test
+    void movesProductsBetweenCategoriesAndDropsDeletedOnes() {
+        put(1L, 10.0, 1, FOOD);
+        put(2L, 20.0, 2, FOOD);
+        put(3L, 30.0, 3, MOBILES);
+        
+        put(2L, 25.0, 2, MOBILES);
+        index.onProductChanged(new ProductChangedEvent(1L, null));
+        
+        assertThat(index.query(1L, UNBOUNDED, ProductRangeIndex.Column.PRICE, false, null, null, 10)).isEmpty();
+        assertThat(ids(index.query(2L, UNBOUNDED, ProductRangeIndex.Column.PRICE, false, null, null, 10)))
+            .containsExactly(2L, 3L);
+        assertThat(ids(index.query(null, UNBOUNDED, ProductRangeIndex.Column.PRICE, false, null, null, 10)))
+            .containsExactly(2L, 3L);
+    }
+    
+    @Test
+    void walksDescendingWithinBoundsFromTheCursor() {
+        for (long id = 1; id <= 8; id++) {
+            put(id, id * 10.0, (int) id, FOOD);
+        }
+        ProductRangeIndex.Bounds bounds = ProductRangeIndex.Bounds.of(20.0, 70.0, 3, null, null);
+        
+        List<Product> first = index.query(null, bounds, ProductRangeIndex.Column.PRICE, true, null, null, 2);
+        assertThat(ids(first)).containsExactly(7L, 6L, 5L);
+        
+        Product last = first.get(1);
+        List<Product> second = index.query(null, bounds, ProductRangeIndex.Column.PRICE, true, last.getPrice(), last.getId(), 2);
+        assertThat(ids(second)).containsExactly(5L, 4L, 3L);
+        
+        List<Product> third = index.query(null, bounds, ProductRangeIndex.Column.PRICE, true, 40.0, 4L, 2);
+        assertThat(ids(third)).containsExactly(3L);
+    }
+    
+    @Test
+    void resumesAfterTiesOnTheCursorValue() {
+        put(1L, 10.0, 1, FOOD);
+        put(2L, 10.0, 1, FOOD);
+        put(3L, 10.0, 1, FOOD);
+        
+        assertThat(ids(index.query(null, UNBOUNDED, ProductRangeIndex.Column.PRICE, false, 10.0, 2L, 10)))
+            .containsExactly(3L);
+        assertThat(ids(index.query(null, UNBOUNDED, ProductRangeIndex.Column.PRICE, true, 10.0, 2L, 10)))
+            .containsExactly(1L);
+    }
+    
+    private void put(long id, double price, int stock, Category category) {
+        index.onProductChanged(new ProductChangedEvent(id, new Product(id, "Product " + id, price, stock, null, category)));
+    }
+    
+    private List<Product> byStock(Long categoryId, ProductRangeIndex.Bounds bounds, boolean descending) {
+        return index.query(categoryId, bounds, ProductRangeIndex.Column.STOCK, descending, null, null, 100);
+    }
+    
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+}
@@ -0,0 +1,117 @@
+package com.shopify.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.shopify.entity.Category;
+import com.shopify.entity.Payment;
+import com.shopify.entity.Payment.PaymentStatus;
+import com.shopify.entity.PaymentMode;
+import com.shopify.entity.Product;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Sample data and in-memory stand-ins shared by the benchmarks
+final class Fixtures {
+    
+    private Fixtures() {
+    }
+    
+    // Mirrors the Spring Boot defaults the application serializes with
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    }
+    
+    static List<Category> categories() {
+        List<Category> categories = new ArrayList<>();
+        String[] names = { "Food", "Mobiles", "Electronics", "Stationery" };
+        for (int i = 0; i < names.length; i++) {
+            categories.add(new Category((long) i + 1, names[i]));
+        }
+        return categories;
+    }
+    
+    static List<Product> products(int count) {
+        List<Category> categories = categories();
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product("Product " + i, 100 + (i % 1000) * 1.5, i % 500,
+                "https://images.unsplash.com/photo-" + i + "?w=400", categories.get(i % categories.size()));
+            product.setId((long) i + 1);
+            products.add(product);
+        }
+        return products;
+    }
+    
+    static List<PaymentMode> paymentModes() {
+        List<PaymentMode> modes = new ArrayList<>();
+        String[] names = { "Cash On Delivery", "UPI", "Debit/Credit Card", "Net Banking", "Wallet" };
+        for (int i = 0; i < names.length; i++) {
+            modes.add(new PaymentMode((long) i + 1, names[i], true));
+        }
+        return modes;
+    }
+    
+    static Payment payment(long id, PaymentMode mode) {
+        return new Payment(id, LocalDateTime.of(2025, 11, 11, 15, 8).plusMinutes(id), mode,
+            "TXN" + id, new BigDecimal("1499.00"), PaymentStatus.PENDING, "Payment via " + mode.getMode());
+    }
+    
+    // Implements a Spring Data repository interface with only the given methods; anything else fails loudly
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            Function<Object[], Object> handler = methods.get(method.getName());
+            if (handler != null) {
+                return handler.apply(args);
+            }
+            return switch (method.getName()) {
+                case "toString" -> "InMemory" + type.getSimpleName();
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            };
+        });
+    }
+    
+    static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot inject " + fieldName, e);
+        }
+    }
+    
+    // Transactions without a database: begin/commit are free, so only the code under test is measured
+    static PlatformTransactionManager noOpTransactionManager() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+            
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+            
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package com.shopify.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopify.dto.PaymentRequestDTO;
+import com.shopify.dto.PaymentResponseDTO;
+import com.shopify.entity.Category;
+import com.shopify.entity.Payment;
+import com.shopify.entity.PaymentMode;
+import com.shopify.repository.ArchivedPaymentRepository;
+import com.shopify.repository.CategoryRepository;
+import com.shopify.repository.PaymentModeRepository;
+import com.shopify.repository.PaymentRepository;
+import com.shopify.service.PaymentService;
+import com.shopify.service.ReferenceDataService;
+import com.shopify.service.TransactionIdFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentServiceBenchmark {
+    
+    private PaymentService paymentService;
+    private Payment payment;
+    private PaymentRequestDTO request;
+    private long nextTransactionId;
+    
+    @Setup
+    public void setUp() {
+        List<PaymentMode> modes = Fixtures.paymentModes();
+        List<Category> categories = Fixtures.categories();
+        ReferenceDataService referenceData = new ReferenceDataService(
+            Fixtures.repository(PaymentModeRepository.class, Map.of("findAll", args -> modes)),
+            Fixtures.repository(CategoryRepository.class, Map.of("findAll", args -> categories)));
+        referenceData.refresh();
+        
+        // saveAndFlush() only assigns an id, like the sequence would; nothing is stored, so no id exists yet
+        AtomicLong ids = new AtomicLong();
+        PaymentRepository payments = Fixtures.repository(PaymentRepository.class, Map.of(
+            "saveAndFlush", args -> {
+                Payment saved = (Payment) args[0];
+                saved.setId(ids.incrementAndGet());
+                return saved;
+            },
+            "existsByTransactionId", args -> false,
+            "countAllTransactionIds", args -> 0L,
+            "streamAllTransactionIds", args -> Stream.empty()));
+        ArchivedPaymentRepository archivedPayments = Fixtures.repository(ArchivedPaymentRepository.class,
+            Map.of("existsByTransactionId", args -> false));
+        
+        // The real filter, built over the empty table, so new ids are answered without touching the repository
+        TransactionIdFilter transactionIdFilter = new TransactionIdFilter(payments,
+            new TransactionTemplate(Fixtures.noOpTransactionManager()), new SimpleMeterRegistry(), 1_000_000, 0.01, Duration.ofMinutes(2));
+        transactionIdFilter.rebuild();
+        
+        paymentService = new PaymentService();
+        Fixtures.inject(paymentService, "paymentRepository", payments);
+        Fixtures.inject(paymentService, "referenceDataService", referenceData);
+        Fixtures.inject(paymentService, "objectMapper", new ObjectMapper());
+        Fixtures.inject(paymentService, "eventPublisher", (org.springframework.context.ApplicationEventPublisher) event -> { });
+        Fixtures.inject(paymentService, "transactionIdFilter", transactionIdFilter);
+        Fixtures.inject(paymentService, "archivedPaymentRepository", archivedPayments);
+        
+        payment = Fixtures.payment(1, modes.get(1));
+        request = new PaymentRequestDTO(2L, "TXN_BENCH", new BigDecimal("1499.00"), "Payment via UPI");
+    }
+    
+    @Benchmark
+    public PaymentResponseDTO convertToDTO() {
+        return paymentService.convertToDTO(payment);
+    }
+    
+    @Benchmark
+    public PaymentResponseDTO createPayment() {
+        // A new transaction id per call, so the filter sees what a new payment looks like
+        request.setTransactionId("TXN_BENCH_" + nextTransactionId++);
+        return paymentService.createPayment(request);
+    }
+}
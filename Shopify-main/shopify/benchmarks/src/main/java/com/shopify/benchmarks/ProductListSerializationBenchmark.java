@@ -0,0 +1,48 @@
+package com.shopify.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.shopify.dto.ProductDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cost of the unpaged GET /api/products body as the catalog grows; output goes to a null stream so the
+// numbers cover serialization only, not growing a byte[]
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductListSerializationBenchmark {
+    
+    @Param({ "1000", "10000", "100000" })
+    private int rows;
+    
+    private ObjectWriter writer;
+    private List<ProductDTO> products;
+    
+    @Setup
+    public void setUp() {
+        writer = Fixtures.objectMapper().writerFor(new TypeReference<List<ProductDTO>>() { });
+        products = Fixtures.products(rows).stream().map(ProductDTO::from).toList();
+    }
+    
+    @Benchmark
+    public void productList() throws Exception {
+        writer.writeValue(OutputStream.nullOutputStream(), products);
+    }
+}
@@ -0,0 +1,105 @@
+package com.shopify.benchmarks;
+
+import com.shopify.dto.StockReductionDTO;
+import com.shopify.repository.ProductRepository;
+import com.shopify.service.InventoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Many threads decrementing one hot product. The in-memory "row" charges roundTripMicros per statement and
+// holds a row lock for an UPDATE until commit, which is what turns the old read-modify-write into a convoy.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class ReduceStockBenchmark {
+    
+    private static final long PRODUCT_ID = 1L;
+    
+    @Param({ "0", "100" })
+    private int roundTripMicros;
+    
+    private final ReentrantLock rowLock = new ReentrantLock();
+    private volatile int stock;
+    private InventoryService inventoryService;
+    
+    @Setup(Level.Iteration)
+    public void setUp() {
+        stock = Integer.MAX_VALUE;
+        ProductRepository products = Fixtures.repository(ProductRepository.class, Map.of(
+            "decrementStock", args -> {
+                rowLock.lock();
+                try {
+                    roundTrip();
+                    int quantity = (Integer) args[1];
+                    if (stock < quantity) {
+                        return 0;
+                    }
+                    stock -= quantity;
+                    return 1;
+                } finally {
+                    rowLock.unlock();
+                }
+            },
+            "findStockById", args -> {
+                roundTrip();
+                return stock;
+            },
+            "lockStockById", args -> {
+                roundTrip();
+                return stock;
+            }
+        ));
+        inventoryService = new InventoryService(products, new TransactionTemplate(Fixtures.noOpTransactionManager()), event -> { });
+    }
+    
+    // The original controller path: SELECT, check in Java, then UPDATE holding the row lock until commit
+    @Benchmark
+    public int readModifyWrite() {
+        roundTrip();
+        int current = stock;
+        if (current < 1) {
+            return -1;
+        }
+        rowLock.lock();
+        try {
+            roundTrip();
+            stock = current - 1;
+            roundTrip();
+            return stock;
+        } finally {
+            rowLock.unlock();
+        }
+    }
+    
+    @Benchmark
+    public StockReductionDTO combinedConditionalUpdate() {
+        return inventoryService.reduceStock(PRODUCT_ID, 1);
+    }
+    
+    private void roundTrip() {
+        if (roundTripMicros > 0) {
+            LockSupport.parkNanos(roundTripMicros * 1_000L);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.shopify.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.shopify.dto.CategoryDTO;
+import com.shopify.dto.DashboardStatsDTO;
+import com.shopify.dto.PaymentResponseDTO;
+import com.shopify.dto.ProductDTO;
+import com.shopify.entity.PaymentMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Single-object serialization of the two payloads the shop and dashboard pages fetch most
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+    
+    private ObjectWriter productWriter;
+    private ObjectWriter dashboardWriter;
+    private ProductDTO product;
+    private DashboardStatsDTO dashboard;
+    
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Fixtures.objectMapper();
+        productWriter = objectMapper.writerFor(ProductDTO.class);
+        dashboardWriter = objectMapper.writerFor(DashboardStatsDTO.class);
+        
+        product = ProductDTO.from(Fixtures.products(1).get(0));
+        
+        List<PaymentMode> modes = Fixtures.paymentModes();
+        List<PaymentResponseDTO> recent = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            recent.add(PaymentResponseDTO.from(Fixtures.payment(i + 1, modes.get(i % modes.size()))));
+        }
+        List<CategoryDTO> categories = Fixtures.categories().stream().map(CategoryDTO::from).toList();
+        dashboard = new DashboardStatsDTO(100_000, categories, 8_844_575.0, 475_000L, recent);
+    }
+    
+    @Benchmark
+    public byte[] product() throws Exception {
+        return productWriter.writeValueAsBytes(product);
+    }
+    
+    @Benchmark
+    public byte[] dashboardStats() throws Exception {
+        return dashboardWriter.writeValueAsBytes(dashboard);
+    }
+}
@@ -0,0 +1,28 @@
+-- Unique index on payments.transaction_id (uk_payments_transaction_id). It is not declared on the Payment
+-- entity, so ddl-auto never creates it: every database whose schema comes from ddl-auto (the default
+-- profile) needs this script, run after the first start has created the tables. Without it duplicate
+-- transaction ids are only caught by the application's existence check, which concurrent requests can race.
+-- Databases migrated by Flyway (the prod profile) already have it. Run outside a transaction block, so the
+-- index is built without blocking writes; the script can be run again.
+-- NULL transaction ids (cash on delivery) are allowed to repeat.
+
+-- Lists duplicates, which the index build fails on. Resolve them by hand (e.g. by setting all but one to NULL)
+-- and run the script again. A failed concurrent build leaves an invalid index behind: DROP INDEX
+-- CONCURRENTLY public.uk_payments_transaction_id before re-running.
+SELECT transaction_id, COUNT(*), array_agg(id ORDER BY id)
+FROM public.payments
+WHERE transaction_id IS NOT NULL
+GROUP BY transaction_id
+HAVING COUNT(*) > 1;
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_payments_transaction_id
+    ON public.payments (transaction_id);
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conname = 'uk_payments_transaction_id' AND conrelid = 'public.payments'::regclass) THEN
+        ALTER TABLE public.payments
+            ADD CONSTRAINT uk_payments_transaction_id UNIQUE USING INDEX uk_payments_transaction_id;
+    END IF;
+END $$;
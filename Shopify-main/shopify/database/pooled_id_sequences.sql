@@ -0,0 +1,9 @@
+-- Ids are allocated by Hibernate from the tables' sequences in blocks of 50 (allocationSize in the
+-- entities), so the sequences must advance by 50 as well. Run once against databases created while
+-- the entities still used IDENTITY; until then the application allocates one id per nextval call.
+-- New rows inserted outside the application should take their id from nextval('<table>_id_seq').
+
+ALTER TABLE public.categories ALTER COLUMN id SET INCREMENT BY 50;
+ALTER TABLE public.payment_modes ALTER COLUMN id SET INCREMENT BY 50;
+ALTER TABLE public.payments ALTER COLUMN id SET INCREMENT BY 50;
+ALTER TABLE public.products ALTER COLUMN id SET INCREMENT BY 50;
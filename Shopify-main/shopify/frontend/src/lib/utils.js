@@ -4,3 +4,10 @@ import { twMerge } from "tailwind-merge"
 export function cn(...inputs) {
   return twMerge(clsx(inputs))
 }
+
+// Replaces the item with the same id, or adds it at the front
+export function upsertById(list, item) {
+  return list.some(existing => existing.id === item.id)
+    ? list.map(existing => (existing.id === item.id ? item : existing))
+    : [item, ...list]
+}
@@ -14,7 +14,8 @@ import { Button } from "@/components/ui/button"
 import { Input } from "@/components/ui/input"
 import { Label } from "@/components/ui/label"
 import { Dialog, DialogContent, DialogDescription, DialogFooter, DialogHeader, DialogTitle } from "@/components/ui/dialog"
-import { productApi, categoryApi, paymentApi } from "@/services/api"
+import { productApi, categoryApi, paymentApi, liveApi } from "@/services/api"
+import { upsertById } from "@/lib/utils"
 
 export default function Admin() {
   const navigate = useNavigate()
@@ -51,6 +52,23 @@ export default function Admin() {
     fetchPayments()
   }, [navigate])
 
+  // Changes made anywhere (other admins, checkouts) are applied from the live update stream; the full
+  // lists are only reloaded after a bulk import or when the server asks for a resync
+  useEffect(() => {
+    return liveApi.subscribe(["products", "payments"], {
+      product: (product) => setProducts(list => upsertById(list, product)),
+      "product-deleted": ({ id }) => setProducts(list => list.filter(p => p.id !== id)),
+      stock: ({ id, totalItemsInStock }) =>
+        setProducts(list => list.map(p => (p.id === id ? { ...p, totalItemsInStock } : p))),
+      payment: (payment) => setPayments(list => upsertById(list, payment)),
+      catalog: () => fetchProducts(),
+      resync: () => {
+        fetchProducts()
+        fetchPayments()
+      },
+    })
+  }, [])
+
   const fetchPayments = async () => {
     try {
       console.log("📋 Fetching payments...")
@@ -119,7 +137,7 @@ export default function Admin() {
   const confirmDelete = async () => {
     try {
       await productApi.delete(deletingProductId)
-      await fetchProducts()
+      setProducts(list => list.filter(p => p.id !== deletingProductId))
       setShowDeleteDialog(false)
       setDeletingProductId(null)
     } catch (err) {
@@ -140,12 +158,10 @@ export default function Admin() {
     }
 
     try {
-      if (editingProduct) {
-        await productApi.update(editingProduct.id, productData)
-      } else {
-        await productApi.create(productData)
-      }
-      await fetchProducts()
+      const response = editingProduct
+        ? await productApi.update(editingProduct.id, productData)
+        : await productApi.create(productData)
+      setProducts(list => upsertById(list, response.data))
       setShowDialog(false)
       setFormData({ name: "", price: "", totalItemsInStock: "", categoryId: "", imageUrl: "" })
     } catch (err) {
@@ -413,7 +429,7 @@ export default function Admin() {
                             </TableCell>
                             <TableCell>
                               <span className="inline-flex items-center px-2.5 py-0.5 rounded-full text-xs font-medium bg-blue-100 text-blue-800 dark:bg-blue-900/30 dark:text-blue-300">
-                                {payment.paymentMode?.mode || "N/A"}
+                                {payment.paymentMode || "N/A"}
                               </span>
                             </TableCell>
                             <TableCell className="font-mono text-sm">
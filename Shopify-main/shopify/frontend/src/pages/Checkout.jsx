@@ -6,7 +6,7 @@ import { Input } from "@/components/ui/input"
 import { Label } from "@/components/ui/label"
 import { Dialog, DialogContent, DialogDescription, DialogHeader, DialogTitle } from "@/components/ui/dialog"
 import { ThemeToggle } from "@/components/ui/theme-toggle"
-import { paymentModeApi, paymentApi, productApi } from "@/services/api"
+import { paymentModeApi, checkoutApi } from "@/services/api"
 
 export default function Checkout() {
   const navigate = useNavigate()
@@ -105,22 +105,18 @@ export default function Checkout() {
       // Simulate processing time
       setTimeout(async () => {
         try {
-          console.log("💳 Creating COD payment...")
-          const paymentRequest = {
+          console.log("💳 Creating COD order...")
+          const checkoutRequest = {
             paymentModeId: selectedPaymentMode,
-            amount: totalAmount,
             transactionId: null,
             remarks: deliveryAddress.trim(),
+            items: toCheckoutItems(),
           }
 
-          console.log("Payment request:", paymentRequest)
-          const response = await paymentApi.create(paymentRequest)
-          console.log("✅ Payment created:", response.data)
-          setPaymentResponse(response.data)
-          
-          // Reduce stock for purchased items
-          console.log("📦 Now reducing stock...")
-          await reduceStockForItems()
+          console.log("Checkout request:", checkoutRequest)
+          const response = await checkoutApi.checkout(checkoutRequest)
+          console.log("✅ Order placed:", response.data)
+          setPaymentResponse(response.data.payment)
           
           setShowPaymentAnimation(false)
           setShowSuccessDialog(true)
@@ -162,26 +158,22 @@ export default function Checkout() {
         console.log(`✅ Payment Successful!`)
         console.log(`📝 Transaction ID: ${transactionId}`)
         
-        const paymentRequest = {
+        const checkoutRequest = {
           paymentModeId: selectedPaymentMode,
-          amount: totalAmount,
           transactionId: transactionId,
           remarks: remarks.trim() || `Payment via ${selectedMode.mode} - ${transactionId}`,
+          items: toCheckoutItems(),
         }
 
-        console.log("Payment request:", paymentRequest)
-        const response = await paymentApi.create(paymentRequest)
-        console.log("✅ Payment created:", response.data)
-        setPaymentResponse(response.data)
-        
-        // Reduce stock for purchased items
-        console.log("📦 Now reducing stock...")
-        await reduceStockForItems()
+        console.log("Checkout request:", checkoutRequest)
+        const response = await checkoutApi.checkout(checkoutRequest)
+        console.log("✅ Order placed:", response.data)
+        setPaymentResponse(response.data.payment)
         
         setShowPaymentAnimation(false)
         setShowSuccessDialog(true)
         
-        console.log("💾 Payment record saved to database:", response.data)
+        console.log("💾 Payment record saved to database:", response.data.payment)
       } catch (err) {
         setShowPaymentAnimation(false)
         setError(err.response?.data?.message || "Payment failed. Please try again.")
@@ -192,24 +184,9 @@ export default function Checkout() {
     }, 2000)
   }
 
-  // Function to reduce stock for all purchased items
-  const reduceStockForItems = async () => {
-    console.log("🔧 Starting stock reduction...")
-    console.log("Cart items:", cart)
-    
-    try {
-      for (const item of cart) {
-        console.log(`Reducing stock for Product ID: ${item.id}, Quantity: ${item.quantity}`)
-        const response = await productApi.reduceStock(item.id, item.quantity)
-        console.log(`✅ Stock reduced successfully for ${item.name}:`, response.data)
-      }
-      console.log("✅ All stock reductions completed!")
-    } catch (err) {
-      console.error("❌ Error reducing stock:", err)
-      console.error("Error details:", err.response?.data)
-      alert("Warning: Payment succeeded but stock update failed. Please contact support.")
-    }
-  }
+  // Payment and stock reduction for every cart line happen in one server-side transaction
+  const toCheckoutItems = () =>
+    cart.map((item) => ({ productId: item.id, quantity: item.quantity }))
 
   const handleSuccessClose = () => {
     setShowSuccessDialog(false)
@@ -6,7 +6,8 @@ import { Button } from "@/components/ui/button"
 import { Dialog, DialogContent, DialogHeader, DialogTitle } from "@/components/ui/dialog"
 import { Table, TableBody, TableCell, TableHead, TableHeader, TableRow } from "@/components/ui/table"
 import { CubeIcon, TokensIcon, ArchiveIcon } from "@radix-ui/react-icons"
-import { dashboardApi, paymentApi } from "@/services/api"
+import { dashboardApi, paymentApi, liveApi } from "@/services/api"
+import { upsertById } from "@/lib/utils"
 
 export default function Dashboard() {
   const navigate = useNavigate()
@@ -30,9 +31,36 @@ export default function Dashboard() {
     fetchDashboardStats()
   }, [navigate])
 
-  const fetchDashboardStats = async () => {
+  // Kept current from the live update stream: the stats (served from the server's in-memory store) are
+  // re-read once changes have been quiet for a second, instead of the page being reloaded
+  useEffect(() => {
+    let timer
+    const refresh = () => {
+      clearTimeout(timer)
+      timer = setTimeout(() => fetchDashboardStats(true), 1000)
+    }
+    const close = liveApi.subscribe(["products", "payments"], {
+      payment: (payment) => {
+        setAllPayments(list => (list.length ? upsertById(list, payment) : list))
+        refresh()
+      },
+      product: refresh,
+      "product-deleted": refresh,
+      stock: refresh,
+      catalog: refresh,
+      resync: refresh,
+    })
+    return () => {
+      clearTimeout(timer)
+      close()
+    }
+  }, [])
+
+  const fetchDashboardStats = async (quiet = false) => {
     try {
-      setLoading(true)
+      if (!quiet) {
+        setLoading(true)
+      }
       const response = await dashboardApi.getStats()
       setStats(response.data)
       setError(null)
@@ -236,7 +264,7 @@ export default function Dashboard() {
                         </span>
                       </div>
                       <div className="text-sm text-muted-foreground">
-                        <span className="font-medium">{payment.paymentMode.mode}</span>
+                        <span className="font-medium">{payment.paymentMode}</span>
                         {payment.transactionId && (
                           <span className="ml-2">• TXN: {payment.transactionId}</span>
                         )}
@@ -288,7 +316,7 @@ export default function Dashboard() {
                       <TableCell className="font-medium">{payment.id}</TableCell>
                       <TableCell>{formatDate(payment.paymentDate)}</TableCell>
                       <TableCell>
-                        <span className="font-medium">{payment.paymentMode.mode}</span>
+                        <span className="font-medium">{payment.paymentMode}</span>
                       </TableCell>
                       <TableCell>
                         <span className="font-mono text-sm">{payment.transactionId || '-'}</span>
@@ -5,7 +5,8 @@ import { Button } from "@/components/ui/button"
 import { Input } from "@/components/ui/input"
 import { Dialog, DialogContent, DialogDescription, DialogFooter, DialogHeader, DialogTitle } from "@/components/ui/dialog"
 import { ThemeToggle } from "@/components/ui/theme-toggle"
-import { productApi } from "@/services/api"
+import { productApi, liveApi } from "@/services/api"
+import { upsertById } from "@/lib/utils"
 
 export default function Shop() {
   const navigate = useNavigate()
@@ -40,8 +41,45 @@ export default function Shop() {
     fetchProducts()
   }, [navigate, location])
 
+  // Prices and stock stay current while the page is open
   useEffect(() => {
-    filterProducts()
+    return liveApi.subscribe(["products"], {
+      product: (product) => setProducts(list => upsertById(list, product)),
+      "product-deleted": ({ id }) => setProducts(list => list.filter(p => p.id !== id)),
+      stock: ({ id, totalItemsInStock }) =>
+        setProducts(list => list.map(p => (p.id === id ? { ...p, totalItemsInStock } : p))),
+      catalog: () => fetchProducts(),
+      resync: () => fetchProducts(),
+    })
+  }, [])
+
+  useEffect(() => {
+    if (!searchTerm.trim()) {
+      filterProducts()
+      return
+    }
+
+    // Searches go to the server-side index, debounced so typing doesn't send a request per keystroke
+    let cancelled = false
+    const timer = setTimeout(async () => {
+      try {
+        const categoryId = products.find(p => p.category?.name === selectedCategory)?.category.id
+        const response = await productApi.search({ q: searchTerm, categoryId, limit: 100 })
+        if (!cancelled) {
+          setFilteredProducts(response.data.hits)
+        }
+      } catch (err) {
+        console.error("Error searching products:", err)
+        if (!cancelled) {
+          filterProducts()
+        }
+      }
+    }, 200)
+
+    return () => {
+      cancelled = true
+      clearTimeout(timer)
+    }
   }, [products, searchTerm, selectedCategory])
 
   const fetchProducts = async () => {
@@ -16,6 +16,12 @@ export const dashboardApi = {
 
 export const productApi = {
   getAll: () => api.get('/products'),
+  // params: { limit, cursor, sort: 'id' | 'price' | 'name', direction: 'asc' | 'desc', categoryId }
+  getPage: (params) => api.get('/products', { params }),
+  // params: { q, categoryId, limit }; every word of q matches as a prefix, hits come best first
+  search: (params) => api.get('/products/search', { params }),
+  // { version, snapshot, upserted, stock, deleted }; pass the last version back as since
+  getChanges: (since) => api.get('/products/changes', { params: { since } }),
   getById: (id) => api.get(`/products/${id}`),
   create: (product) => api.post('/products', product),
   update: (id, product) => api.put(`/products/${id}`, product),
@@ -39,6 +45,8 @@ export const paymentModeApi = {
 
 export const paymentApi = {
   getAll: () => api.get('/payments'),
+  // Newline-delimited JSON, one payment per line; params: { status, from, to } (ISO date-times)
+  exportUrl: (params = {}) => `${API_BASE_URL}/payments/export?${new URLSearchParams(params)}`,
   getById: (id) => api.get(`/payments/${id}`),
   getByTransactionId: (transactionId) => api.get(`/payments/transaction/${transactionId}`),
   getByStatus: (status) => api.get(`/payments/status/${status}`),
@@ -49,4 +57,29 @@ export const paymentApi = {
   delete: (id) => api.delete(`/payments/${id}`),
 };
 
+export const checkoutApi = {
+  checkout: (order) => api.post('/checkout', order),
+};
+
+// Server-sent events from /api/events. topics: 'products' (product, product-deleted, stock, catalog) and/or
+// 'payments' (payment); handlers maps event names to callbacks that receive the parsed payload. resync is
+// called when the server dropped events for this client and after every reconnect, so lists can reload.
+// Returns a function that closes the stream.
+export const liveApi = {
+  subscribe: (topics, handlers) => {
+    const source = new EventSource(`${API_BASE_URL}/events?topics=${topics.join(',')}`, { withCredentials: true });
+    let connected = false;
+    source.addEventListener('ready', () => {
+      if (connected) {
+        handlers.resync?.();
+      }
+      connected = true;
+    });
+    Object.entries(handlers).forEach(([name, handler]) => {
+      source.addEventListener(name, (event) => handler(JSON.parse(event.data)));
+    });
+    return () => source.close();
+  },
+};
+
 export default api;